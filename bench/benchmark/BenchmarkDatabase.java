@@ -0,0 +1,88 @@
+package benchmark;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import db.DB;
+import db.DbException;
+import db.EmbeddedDatabase;
+
+public class BenchmarkDatabase {
+
+	public static final int DEPARTMENTS = 4;
+
+	private static final String[] FIRST_NAMES = { "Alex", "Bob", "Carla", "Donald", "Erica", "Frank", "Gina", "Hugo",
+			"Iris", "John", "Karen", "Luis", "Maria", "Nina", "Otto", "Paula" };
+
+	private static final int SAMPLE_SELLERS = 6;
+	private static final int SEED_BATCH = 10000;
+
+	// schema and sample rows come from script_banco.sql so the benchmarks always track the real schema
+	public static void create(int rows) {
+		Properties properties = new Properties();
+		properties.setProperty("dburl", "jdbc:h2:mem:bench" + rows + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		properties.setProperty("pool.maxSize", "4");
+		properties.setProperty("stream.fetchSize", "1000");
+		DB.setProperties(properties);
+
+		Connection conn = DB.getConnection();
+		try {
+			EmbeddedDatabase.createSchema(conn, Paths.get(EmbeddedDatabase.SCHEMA_SCRIPT));
+			seedSellers(conn, rows - SAMPLE_SELLERS);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage());
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	public static void shutdown() {
+		Connection conn = DB.getConnection();
+		try {
+			Statement statement = conn.createStatement();
+			statement.execute("SHUTDOWN");
+			DB.closeStatement(statement);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage());
+		} finally {
+			DB.closeConnection(conn);
+			DB.closeConnectionPool();
+		}
+	}
+
+	public static String sellerName(int index) {
+		return FIRST_NAMES[index % FIRST_NAMES.length] + " " + Integer.toString(index * 7919 % 1000003, 36);
+	}
+
+	private static void seedSellers(Connection conn, int rows) throws SQLException {
+		conn.setAutoCommit(false);
+		PreparedStatement preparedStatement = conn.prepareStatement(
+				"INSERT INTO seller "
+				+ "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
+				+ "VALUES (?, ?, ?, ?, ?)");
+		long birthDate = java.sql.Date.valueOf("1980-01-01").getTime();
+
+		for (int i = 0; i < rows; i++) {
+			preparedStatement.setString(1, sellerName(i));
+			preparedStatement.setString(2, "seller" + i + "@benchmark.com");
+			preparedStatement.setDate(3, new java.sql.Date(birthDate + (i % 10000) * 86400000L));
+			preparedStatement.setDouble(4, 1000.0 + i % 9000);
+			preparedStatement.setInt(5, 1 + i % DEPARTMENTS);
+			preparedStatement.addBatch();
+
+			if ((i + 1) % SEED_BATCH == 0) {
+				preparedStatement.executeBatch();
+				conn.commit();
+			}
+		}
+		preparedStatement.executeBatch();
+		conn.commit();
+		DB.closeStatement(preparedStatement);
+		conn.setAutoCommit(true);
+	}
+
+}
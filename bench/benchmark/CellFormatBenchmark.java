@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gui.util.Formatters;
+
+// per-cell cost of the text Utils.formatTableColumnDate/formatTableColumnDouble produce
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CellFormatBenchmark {
+
+	private static final String DATE_PATTERN = "dd/MM/yyyy";
+
+	private Date date;
+	private double salary;
+	private SimpleDateFormat cellDateFormat;
+	private DateTimeFormatter cachedDateFormatter;
+	private DecimalFormat cachedDecimalFormat;
+
+	@Setup
+	public void setUp() {
+		date = new Date();
+		salary = 1234.5678;
+		cellDateFormat = new SimpleDateFormat(DATE_PATTERN);
+		cachedDateFormatter = Formatters.date(DATE_PATTERN);
+		cachedDecimalFormat = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(Locale.US));
+		cachedDecimalFormat.setRoundingMode(RoundingMode.HALF_UP);
+	}
+
+	// before: every new cell built its own SimpleDateFormat
+	@Benchmark
+	public String dateNewSimpleDateFormat() {
+		return new SimpleDateFormat(DATE_PATTERN).format(date);
+	}
+
+	// before: a reused cell still formats through SimpleDateFormat
+	@Benchmark
+	public String dateCellSimpleDateFormat() {
+		return cellDateFormat.format(date);
+	}
+
+	@Benchmark
+	public String dateCachedFormatter() {
+		return cachedDateFormatter.format(date.toInstant());
+	}
+
+	// before: every updateItem reset the JVM default locale and parsed the format string again
+	@Benchmark
+	public String doubleLocaleSetDefaultStringFormat() {
+		Locale.setDefault(Locale.US);
+		return String.format("%." + 2 + "f", salary);
+	}
+
+	// baseline: a DecimalFormat kept per thread, the usual alternative to String.format; it rounds the exact
+	// binary value, so unlike formatDecimal it turns 1.005 into 1.00
+	@Benchmark
+	public String doubleCachedDecimalFormat() {
+		return cachedDecimalFormat.format(salary);
+	}
+
+	// what formatTableColumnDouble calls now
+	@Benchmark
+	public String doubleFormatters() {
+		return Formatters.formatDecimal(salary, 2);
+	}
+
+}
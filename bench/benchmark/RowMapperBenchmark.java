@@ -0,0 +1,96 @@
+package benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import db.DB;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.impl.SellerRowMapper;
+import model.entities.Department;
+import model.entities.Seller;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class RowMapperBenchmark {
+
+	@Param({ "1000000" })
+	public int rows;
+
+	private DepartmentDao departmentDao;
+	private Connection conn;
+	private PreparedStatement preparedStatement;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		BenchmarkDatabase.create(rows);
+		departmentDao = DaoFactory.createDepartmentDao();
+		conn = DB.getConnection();
+		preparedStatement = conn.prepareStatement("SELECT * FROM seller");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		DB.closeStatement(preparedStatement);
+		DB.closeConnection(conn);
+		BenchmarkDatabase.shutdown();
+	}
+
+	@Benchmark
+	public void columnIndexMapper(Blackhole blackhole) throws SQLException {
+		ResultSet resultSet = preparedStatement.executeQuery();
+		SellerRowMapper rowMapper = new SellerRowMapper(resultSet, departmentDao);
+		while (resultSet.next()) {
+			blackhole.consume(rowMapper.mapRow(resultSet));
+		}
+		resultSet.close();
+	}
+
+	// the name-based mapping SellerDaoJDBC used before SellerRowMapper, kept as the baseline
+	@Benchmark
+	public void columnNameMapping(Blackhole blackhole) throws SQLException {
+		ResultSet resultSet = preparedStatement.executeQuery();
+		Map<Integer, Department> departments = new HashMap<>();
+		while (resultSet.next()) {
+			Department dep = departments.get(resultSet.getInt("DepartmentId"));
+			if (dep == null) {
+				dep = departmentDao.findById(resultSet.getInt("DepartmentId"));
+				departments.put(resultSet.getInt("DepartmentId"), dep);
+			}
+			Seller seller = new Seller();
+			seller.setId(resultSet.getInt("Id"));
+			seller.setName(resultSet.getString("Name"));
+			seller.setEmail(resultSet.getString("Email"));
+			seller.setBirthDate(new java.util.Date(resultSet.getDate("BirthDate").getTime()));
+			seller.setBaseSalary(resultSet.getDouble("BaseSalary"));
+			seller.setDepartment(dep);
+			blackhole.consume(seller);
+		}
+		resultSet.close();
+	}
+
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.dao.DaoFactory;
+import model.dao.SalaryStatistics;
+import model.dao.SellerDao;
+import model.entities.Seller;
+import model.services.SalaryReportService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class SalaryReportBenchmark {
+
+	@Param({ "10000", "1000000" })
+	public int rows;
+
+	private SellerDao sellerDao;
+	private SalaryReportService salaryReportService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkDatabase.create(rows);
+		sellerDao = DaoFactory.createSellerDao();
+		salaryReportService = new SalaryReportService();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkDatabase.shutdown();
+	}
+
+	// what the report would cost without the aggregate query
+	@Benchmark
+	public Map<Integer, double[]> findAllAndAggregate() {
+		Map<Integer, double[]> statistics = new HashMap<>();
+		for (Seller seller : sellerDao.findAll()) {
+			double[] values = statistics.computeIfAbsent(seller.getDepartment().getId(),
+					id -> new double[] { 0, 0, Double.MAX_VALUE, -Double.MAX_VALUE });
+			values[0]++;
+			values[1] += seller.getBaseSalary();
+			values[2] = Math.min(values[2], seller.getBaseSalary());
+			values[3] = Math.max(values[3], seller.getBaseSalary());
+		}
+		return statistics;
+	}
+
+	@Benchmark
+	public List<SalaryStatistics> groupByQuery() {
+		return sellerDao.salaryStatisticsByDepartment();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public List<SalaryStatistics> cachedReport() {
+		return salaryReportService.salaryByDepartment();
+	}
+
+}
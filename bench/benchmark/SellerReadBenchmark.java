@@ -0,0 +1,78 @@
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.dao.DaoFactory;
+import model.dao.Page;
+import model.dao.SellerDao;
+import model.dao.SortOrder;
+import model.entities.Department;
+import model.entities.Seller;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class SellerReadBenchmark {
+
+	@Param({ "10000", "1000000", "10000000" })
+	public int rows;
+
+	private SellerDao sellerDao;
+	private Department department;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkDatabase.create(rows);
+		sellerDao = DaoFactory.createSellerDao();
+		department = new Department(1, null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkDatabase.shutdown();
+	}
+
+	@Benchmark
+	public List<Seller> findAll() {
+		return sellerDao.findAll();
+	}
+
+	@Benchmark
+	public List<Seller> findByDepartment() {
+		return sellerDao.findByDepartment(department);
+	}
+
+	@Benchmark
+	public void stream(Blackhole blackhole) {
+		try (Stream<Seller> sellers = sellerDao.stream()) {
+			sellers.forEach(blackhole::consume);
+		}
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Page<Seller> findFirstPage() {
+		return sellerDao.findPage(null, 100, SortOrder.ASC);
+	}
+
+}
@@ -0,0 +1,112 @@
+package benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import db.DB;
+import db.DbException;
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class SellerWriteBenchmark {
+
+	private static final int BATCH = 1000;
+
+	@Param({ "10000", "1000000", "10000000" })
+	public int rows;
+
+	private SellerDao sellerDao;
+	private Department department;
+	private Date birthDate = new Date();
+	// current Version of each seeded row, so update() passes the optimistic lock check
+	private int[] versions;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkDatabase.create(rows);
+		sellerDao = DaoFactory.createSellerDao();
+		department = new Department(1, null);
+		versions = new int[rows + 1];
+	}
+
+	@TearDown(Level.Iteration)
+	public void removeInsertedRows() {
+		Connection conn = DB.getConnection();
+		PreparedStatement preparedStatement = null;
+		try {
+			preparedStatement = conn.prepareStatement("DELETE FROM seller WHERE Id > ?");
+			preparedStatement.setInt(1, rows);
+			preparedStatement.executeUpdate();
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage());
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkDatabase.shutdown();
+	}
+
+	@Benchmark
+	public void insert() {
+		sellerDao.insert(newSeller(0));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void insertAll() {
+		List<Seller> sellers = new ArrayList<>(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			sellers.add(newSeller(i));
+		}
+		sellerDao.insertAll(sellers);
+	}
+
+	@Benchmark
+	public void update() {
+		int id = 1 + ThreadLocalRandom.current().nextInt(rows);
+		Seller seller = newSeller(id);
+		seller.setId(id);
+		seller.setVersion(versions[id]);
+		sellerDao.update(seller);
+		versions[id] = seller.getVersion();
+	}
+
+	private Seller newSeller(int index) {
+		return new Seller(null, BenchmarkDatabase.sellerName(index), "new" + index + "@benchmark.com", birthDate,
+				2000.0 + index % 1000, department);
+	}
+
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.entities.Department;
+import model.entities.Seller;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class TableModelBenchmark {
+
+	@Param({ "10000", "1000000", "10000000" })
+	public int rows;
+
+	private List<Seller> sellers;
+	private ObservableList<Seller> observableList;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Department department = new Department(1, "Computers");
+		Date birthDate = new Date();
+		sellers = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			sellers.add(new Seller(i + 1, BenchmarkDatabase.sellerName(i), "seller" + i + "@benchmark.com", birthDate,
+					1000.0 + i % 9000, department));
+		}
+		observableList = FXCollections.observableArrayList();
+	}
+
+	// what SellerListController.updateTableView does on every refresh
+	@Benchmark
+	public ObservableList<Seller> observableArrayList() {
+		return FXCollections.observableArrayList(sellers);
+	}
+
+	@Benchmark
+	public ObservableList<Seller> setAll() {
+		observableList.setAll(sellers);
+		return observableList;
+	}
+
+}
@@ -1,6 +1,7 @@
 CREATE TABLE department (
   Id int(11) NOT NULL AUTO_INCREMENT,
   Name varchar(60) DEFAULT NULL,
+  Version int(11) NOT NULL DEFAULT 0,
   PRIMARY KEY (Id)
 );
 
@@ -11,6 +12,7 @@ CREATE TABLE seller (
   BirthDate datetime NOT NULL,
   BaseSalary double NOT NULL,
   DepartmentId int(11) NOT NULL,
+  Version int(11) NOT NULL DEFAULT 0,
   PRIMARY KEY (Id),
   FOREIGN KEY (DepartmentId) REFERENCES department (id)
 );
@@ -27,4 +29,20 @@ INSERT INTO seller (Name, Email, BirthDate, BaseSalary, DepartmentId) VALUES
   ('Alex Grey','alex@gmail.com','1988-01-15 00:00:00',2200,1),
   ('Martha Red','martha@gmail.com','1993-11-30 00:00:00',3000,4),
   ('Donald Blue','donald@gmail.com','2000-01-09 00:00:00',4000,3),
-  ('Alex Pink','bob@gmail.com','1997-03-04 00:00:00',3000,2);
\ No newline at end of file
+  ('Alex Pink','bob@gmail.com','1997-03-04 00:00:00',3000,2);
+
+CREATE INDEX idx_seller_name ON seller (Name);
+CREATE INDEX idx_seller_email ON seller (Email);
+CREATE INDEX idx_seller_department_name ON seller (DepartmentId, Name);
+
+CREATE TABLE change_log (
+  Id bigint NOT NULL AUTO_INCREMENT,
+  EntityType varchar(20) NOT NULL,
+  EntityId int(11) DEFAULT NULL,
+  ChangeType varchar(10) NOT NULL,
+  Origin varchar(36) NOT NULL,
+  ChangedAt datetime NOT NULL,
+  PRIMARY KEY (Id)
+);
+
+CREATE INDEX idx_change_log_changed_at ON change_log (ChangedAt);
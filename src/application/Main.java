@@ -1,10 +1,16 @@
 package application;
 
+import db.DB;
+import db.QueryMetrics;
+import gui.MainViewController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.stage.Stage;
+import model.dao.DaoFactory;
+import model.services.ChangeFeed;
+import model.services.ServiceExecutor;
 
 public class Main extends Application {
 
@@ -13,6 +19,9 @@ public class Main extends Application {
 	@Override
 	public void start(Stage stage) {
 		try {
+			// dao.backend=embedded repoints DB, so it has to be settled before any view touches the pool
+			DaoFactory.getBackend();
+
 			FXMLLoader loader = new FXMLLoader(getClass().getResource("/gui/MainView.fxml"));
 			ScrollPane scrollPane = loader.load();
 			scrollPane.setFitToHeight(true);
@@ -22,11 +31,22 @@ public class Main extends Application {
 			stage.setScene(mainScene);
 			stage.setTitle("Projeto JavaFX e JDBC");
 			stage.show();
+			((MainViewController) loader.getController()).preloadViews();
+
+			QueryMetrics.registerMBean();
+			ChangeFeed.start();
 		} catch (Exception exception) {
 			exception.printStackTrace();
 		}
 	}
 
+	@Override
+	public void stop() {
+		ChangeFeed.stop();
+		ServiceExecutor.shutdown();
+		DB.closeConnectionPool();
+	}
+
 	public static void main(String[] args) {
 		launch(args);
 	}
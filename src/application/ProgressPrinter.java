@@ -0,0 +1,19 @@
+package application;
+
+import model.services.ProgressListener;
+
+// the progress output shared by the headless entry points: one line on stderr per 10%
+class ProgressPrinter implements ProgressListener {
+
+	private int lastPercent = -1;
+
+	@Override
+	public void onProgress(long done, long total) {
+		int percent = total == 0 ? 100 : (int) (done * 100 / total);
+		if (percent / 10 != lastPercent / 10) {
+			System.err.println(percent + "%");
+		}
+		lastPercent = percent;
+	}
+
+}
@@ -0,0 +1,30 @@
+package application;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import db.DB;
+import model.services.SellerExportService;
+import model.services.ServiceExecutor;
+
+// headless entry point: java -cp ... application.SellerExport sellers.csv|sellers.json[.gz]
+public class SellerExport {
+
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Usage: SellerExport <sellers.csv|sellers.json>[.gz]");
+			System.exit(2);
+		}
+		Path target = Paths.get(args[0]);
+
+		try {
+			long written = new SellerExportService().export(target, SellerExportService.formatOf(target),
+					SellerExportService.isGzip(target), new ProgressPrinter(), null);
+			System.out.println(written + " sellers exported to " + target);
+		} finally {
+			ServiceExecutor.shutdown();
+			DB.closeConnectionPool();
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package application;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import db.DB;
+import model.exceptions.ValidationException;
+import model.services.ImportResult;
+import model.services.SellerImportService;
+import model.services.ServiceExecutor;
+
+// headless entry point: java -cp ... application.SellerImport sellers.csv [rejects.csv]
+public class SellerImport {
+
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("Usage: SellerImport <sellers.csv> [rejects.csv]");
+			System.exit(2);
+		}
+		Path source = Paths.get(args[0]);
+		Path rejectFile = args.length > 1 ? Paths.get(args[1]) : Paths.get(args[0] + ".rejects.csv");
+
+		int status;
+		try {
+			ImportResult result = new SellerImportService().importCsv(source, rejectFile, new ProgressPrinter());
+			System.out.println(result);
+			status = result.getRejected() > 0 ? 1 : 0;
+		} catch (ValidationException exception) {
+			System.err.println(exception.getMessage() + ": " + exception.getErrors());
+			status = 2;
+		} finally {
+			ServiceExecutor.shutdown();
+			DB.closeConnectionPool();
+		}
+		System.exit(status);
+	}
+
+}
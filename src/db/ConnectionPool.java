@@ -0,0 +1,449 @@
+package db;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConnectionPool {
+
+	private final String url;
+	private final Properties connectionProperties = new Properties();
+
+	private final int minSize;
+	private final int maxSize;
+	private final long acquireTimeoutMillis;
+	private final long idleTimeoutMillis;
+	private final int validationTimeoutSeconds;
+	private final long leakDetectionThresholdMillis;
+	private final int statementCacheSize;
+
+	private final ReentrantLock lock = new ReentrantLock(true);
+	private final Condition available = lock.newCondition();
+	private final Deque<PooledConnection> idle = new ArrayDeque<>();
+	private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+	private int total = 0;
+	private int waiting = 0;
+	private boolean closed = false;
+
+	private final LatencyHistogram waitTimes = new LatencyHistogram();
+	private final LongAdder statementCacheHits = new LongAdder();
+	private final LongAdder statementCacheMisses = new LongAdder();
+	private final ScheduledExecutorService housekeeper;
+
+	public ConnectionPool(Properties properties) {
+		this.url = properties.getProperty("dburl");
+		for (String key : properties.stringPropertyNames()) {
+			// namespaced keys (pool.*, cache.*, ...) configure the application, not the driver
+			if (!key.contains(".")) {
+				connectionProperties.setProperty(key, properties.getProperty(key));
+			}
+		}
+		this.maxSize = Math.max(DB.intProperty(properties, "pool.maxSize", 10), 1);
+		this.minSize = Math.min(DB.intProperty(properties, "pool.minSize", 1), maxSize);
+		this.acquireTimeoutMillis = DB.intProperty(properties, "pool.acquireTimeoutMillis", 30000);
+		this.idleTimeoutMillis = DB.intProperty(properties, "pool.idleTimeoutMillis", 600000);
+		this.validationTimeoutSeconds = DB.intProperty(properties, "pool.validationTimeoutSeconds", 5);
+		this.leakDetectionThresholdMillis = DB.intProperty(properties, "pool.leakDetectionThresholdMillis", 0);
+		this.statementCacheSize = DB.intProperty(properties, "pool.statementCacheSize", 32);
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(Math.min(idleTimeoutMillis, 30000) / 2, 1000);
+		housekeeper.scheduleWithFixedDelay(this::houseKeep, 0, period, TimeUnit.MILLISECONDS);
+	}
+
+	public Connection getConnection() {
+		long start = System.nanoTime();
+		PooledConnection pooled = acquire(start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis));
+		waitTimes.record(System.nanoTime() - start);
+		return pooled.lease();
+	}
+
+	public void close() {
+		List<PooledConnection> toClose;
+		lock.lock();
+		try {
+			closed = true;
+			toClose = new ArrayList<>(idle);
+			total -= idle.size();
+			idle.clear();
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		housekeeper.shutdownNow();
+		toClose.forEach(PooledConnection::closePhysical);
+	}
+
+	public int getActiveCount() {
+		return active.size();
+	}
+
+	public int getIdleCount() {
+		lock.lock();
+		try {
+			return idle.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getWaitingCount() {
+		lock.lock();
+		try {
+			return waiting;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getTotalCount() {
+		lock.lock();
+		try {
+			return total;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public LatencyHistogram getWaitTimeHistogram() {
+		return waitTimes;
+	}
+
+	public long getStatementCacheHits() {
+		return statementCacheHits.sum();
+	}
+
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "ConnectionPool{" + "active=" + getActiveCount() + ", idle=" + getIdleCount() + ", waiting="
+				+ getWaitingCount() + ", total=" + getTotalCount() + ", statementCacheHits=" + getStatementCacheHits()
+				+ ", statementCacheMisses=" + getStatementCacheMisses() + ", waitTime={" + waitTimes + "}}";
+	}
+
+	private PooledConnection acquire(long deadline) {
+		while (true) {
+			PooledConnection candidate = null;
+			lock.lock();
+			try {
+				while (candidate == null) {
+					if (closed) {
+						throw new DbException("Connection pool is closed");
+					}
+					candidate = idle.pollFirst();
+					if (candidate == null && total < maxSize) {
+						total++;
+						break;
+					}
+					if (candidate == null) {
+						long remaining = deadline - System.nanoTime();
+						if (remaining <= 0) {
+							throw new DbException(
+									"Timed out after " + acquireTimeoutMillis + "ms waiting for a database connection");
+						}
+						waiting++;
+						try {
+							available.awaitNanos(remaining);
+						} catch (InterruptedException exception) {
+							Thread.currentThread().interrupt();
+							throw new DbException("Interrupted while waiting for a database connection");
+						} finally {
+							waiting--;
+						}
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			if (candidate == null) {
+				candidate = open();
+			} else if (!candidate.isValid()) {
+				discard(candidate);
+				continue;
+			}
+			candidate.borrowed();
+			active.add(candidate);
+			return candidate;
+		}
+	}
+
+	private PooledConnection open() {
+		Connection physical = null;
+		try {
+			physical = DriverManager.getConnection(url, connectionProperties);
+			return new PooledConnection(physical);
+		} catch (SQLException exception) {
+			if (physical != null) {
+				try {
+					physical.close();
+				} catch (SQLException closeException) {
+					// the connection is being thrown away anyway
+				}
+			}
+			lock.lock();
+			try {
+				total--;
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+			throw new DbException(exception.getMessage(), exception);
+		}
+	}
+
+	private void release(PooledConnection pooled) {
+		active.remove(pooled);
+		try {
+			if (!pooled.physical.getAutoCommit()) {
+				pooled.physical.rollback();
+				pooled.physical.setAutoCommit(true);
+			}
+			if (pooled.sessionChanged) {
+				pooled.resetSession();
+			}
+		} catch (SQLException exception) {
+			discard(pooled);
+			return;
+		}
+		pooled.lastUsed = System.currentTimeMillis();
+
+		lock.lock();
+		try {
+			if (!closed) {
+				idle.addFirst(pooled);
+				available.signal();
+				return;
+			}
+			total--;
+		} finally {
+			lock.unlock();
+		}
+		pooled.closePhysical();
+	}
+
+	private void discard(PooledConnection pooled) {
+		pooled.closePhysical();
+		lock.lock();
+		try {
+			total--;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void houseKeep() {
+		long now = System.currentTimeMillis();
+		List<PooledConnection> evicted = new ArrayList<>();
+		int missing;
+
+		lock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			Iterator<PooledConnection> iterator = idle.descendingIterator();
+			while (iterator.hasNext() && total > minSize) {
+				PooledConnection pooled = iterator.next();
+				if (now - pooled.lastUsed >= idleTimeoutMillis) {
+					iterator.remove();
+					total--;
+					evicted.add(pooled);
+				}
+			}
+			missing = minSize - total;
+			total += Math.max(missing, 0);
+		} finally {
+			lock.unlock();
+		}
+		evicted.forEach(PooledConnection::closePhysical);
+
+		for (int i = 0; i < missing; i++) {
+			try {
+				release(open());
+			} catch (DbException exception) {
+				lock.lock();
+				try {
+					total -= missing - i - 1;
+				} finally {
+					lock.unlock();
+				}
+				break;
+			}
+		}
+
+		if (leakDetectionThresholdMillis > 0) {
+			for (PooledConnection pooled : active) {
+				if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionThresholdMillis) {
+					pooled.leakReported = true;
+					StringWriter trace = new StringWriter();
+					pooled.borrowTrace.printStackTrace(new PrintWriter(trace));
+					// one println, so reports from different connections do not interleave
+					System.err.println("Possible connection leak: connection borrowed " + (now - pooled.borrowedAt)
+							+ "ms ago and not returned" + System.lineSeparator() + trace);
+				}
+			}
+		}
+	}
+
+	private class PooledConnection {
+
+		private final Connection physical;
+		private final StatementCache statementCache;
+		private volatile long lastUsed = System.currentTimeMillis();
+		private volatile long borrowedAt;
+		private volatile Throwable borrowTrace;
+		private volatile boolean leakReported;
+		// what the driver opened the connection with, put back when a borrower changed it
+		private final boolean defaultReadOnly;
+		private final int defaultIsolation;
+		private final String defaultCatalog;
+		private volatile boolean sessionChanged;
+
+		private PooledConnection(Connection physical) throws SQLException {
+			this.physical = physical;
+			this.statementCache = new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses);
+			this.defaultReadOnly = physical.isReadOnly();
+			this.defaultIsolation = physical.getTransactionIsolation();
+			this.defaultCatalog = physical.getCatalog();
+		}
+
+		private void resetSession() throws SQLException {
+			if (physical.isReadOnly() != defaultReadOnly) {
+				physical.setReadOnly(defaultReadOnly);
+			}
+			if (physical.getTransactionIsolation() != defaultIsolation) {
+				physical.setTransactionIsolation(defaultIsolation);
+			}
+			if (defaultCatalog != null && !defaultCatalog.equals(physical.getCatalog())) {
+				physical.setCatalog(defaultCatalog);
+			}
+			sessionChanged = false;
+		}
+
+		private void borrowed() {
+			borrowedAt = System.currentTimeMillis();
+			leakReported = false;
+			borrowTrace = leakDetectionThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+		}
+
+		private boolean isValid() {
+			try {
+				return physical.isValid(validationTimeoutSeconds);
+			} catch (SQLException exception) {
+				return false;
+			}
+		}
+
+		private Connection lease() {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Lease(this));
+		}
+
+		private void closePhysical() {
+			statementCache.closeAll();
+			try {
+				physical.close();
+			} catch (SQLException exception) {
+				// the connection is being thrown away anyway
+			}
+		}
+
+	}
+
+	private class Lease implements InvocationHandler {
+
+		private final PooledConnection pooled;
+		private boolean released = false;
+
+		private Lease(PooledConnection pooled) {
+			this.pooled = pooled;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!released) {
+					released = true;
+					release(pooled);
+				}
+				return null;
+			case "isClosed":
+				return released || pooled.physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection[" + pooled.physical + "]";
+			case "setReadOnly":
+			case "setTransactionIsolation":
+			case "setCatalog":
+				pooled.sessionChanged = true;
+				break;
+			default:
+				break;
+			}
+			if (released) {
+				throw new SQLException("Connection has already been returned to the pool");
+			}
+			if (method.getName().equals("prepareStatement")) {
+				PreparedStatement statement = prepare(method, args);
+				QueryCancellation.track(statement);
+				return QueryMetrics.instrument(statement, (String) args[0]);
+			}
+			try {
+				return method.invoke(pooled.physical, args);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		}
+
+		private PreparedStatement prepare(Method method, Object[] args) throws Throwable {
+			if (args.length == 1) {
+				return pooled.statementCache.prepare(pooled.physical, (String) args[0], Statement.NO_GENERATED_KEYS);
+			}
+			if (args.length == 2 && args[1] instanceof Integer) {
+				return pooled.statementCache.prepare(pooled.physical, (String) args[0], (Integer) args[1]);
+			}
+			try {
+				return (PreparedStatement) method.invoke(pooled.physical, args);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		}
+
+	}
+
+}
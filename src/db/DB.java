@@ -3,45 +3,144 @@ package db;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 public class DB {
 
-	private static Connection conn = null;
+	// read on every query, so the getters only lock while the first instance is created
+	private static volatile Properties properties = null;
+	private static volatile ConnectionPool connectionPool = null;
+	private static volatile ReplicaRouter replicaRouter = null;
+	private static volatile long lastWriteNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
 
+	// primary connection, for writes; inside TransactionManager.execute every DAO call shares the transaction's
 	public static Connection getConnection() {
-		if (conn == null) {
-			try {
-				Properties properties = loadProperties();
-				String url = properties.getProperty("dburl");
-				conn = DriverManager.getConnection(url, properties);
-			} catch (SQLException exception) {
-				throw new DbException(exception.getMessage());
-			}
+		Connection conn = TransactionManager.currentConnection();
+		if (conn != null) {
+			return conn;
 		}
-		return conn;
+		return getConnectionPool().getConnection();
 	}
 
-	public static void closeConnection() {
+	// a replica when one is configured and in sync; the primary inside a transaction and right after a write,
+	// so a view that refreshes after saving sees its own change
+	public static Connection getReadConnection() {
+		Connection conn = TransactionManager.currentConnection();
 		if (conn != null) {
+			return conn;
+		}
+		ReplicaRouter router = getReplicaRouter();
+		if (router.hasReplicas() && !readsFromPrimary()) {
+			conn = router.getConnection();
+			if (conn != null) {
+				return conn;
+			}
+		}
+		return getConnectionPool().getConnection();
+	}
+
+	public static ReplicaRouter getReplicaRouter() {
+		ReplicaRouter router = replicaRouter;
+		if (router != null) {
+			return router;
+		}
+		synchronized (DB.class) {
+			if (replicaRouter == null) {
+				replicaRouter = new ReplicaRouter(getProperties());
+			}
+			return replicaRouter;
+		}
+	}
+
+	// called by TransactionManager once a write commits; checking out a primary connection is not a write by itself
+	static void recordWrite() {
+		lastWriteNanos = System.nanoTime();
+	}
+
+	private static boolean readsFromPrimary() {
+		long window = TimeUnit.MILLISECONDS.toNanos(getIntProperty("replica.readYourWritesMillis", 2000));
+		return System.nanoTime() - lastWriteNanos < window;
+	}
+
+	public static ConnectionPool getConnectionPool() {
+		ConnectionPool pool = connectionPool;
+		if (pool != null) {
+			return pool;
+		}
+		synchronized (DB.class) {
+			if (connectionPool == null) {
+				connectionPool = new ConnectionPool(getProperties());
+			}
+			return connectionPool;
+		}
+	}
+
+	public static Properties getProperties() {
+		Properties current = properties;
+		if (current != null) {
+			return current;
+		}
+		synchronized (DB.class) {
+			if (properties == null) {
+				properties = loadProperties();
+			}
+			return properties;
+		}
+	}
+
+	public static int getIntProperty(String key, int defaultValue) {
+		return intProperty(getProperties(), key, defaultValue);
+	}
+
+	public static int intProperty(Properties properties, String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException exception) {
+			throw new DbException("Invalid value for " + key + ": " + value);
+		}
+	}
+
+	public static synchronized void setProperties(Properties newProperties) {
+		closeConnectionPool();
+		properties = newProperties;
+		QueryMetrics.reload();
+	}
+
+	public static void closeConnection(Connection conn) {
+		if (conn != null && conn != TransactionManager.currentConnection()) {
 			try {
 				conn.close();
 			} catch (SQLException exception) {
-				throw new DbException(exception.getMessage());
+				throw new DbException(exception.getMessage(), exception);
 			}
 		}
 	}
 
+	public static synchronized void closeConnectionPool() {
+		if (connectionPool != null) {
+			connectionPool.close();
+			connectionPool = null;
+		}
+		if (replicaRouter != null) {
+			replicaRouter.close();
+			replicaRouter = null;
+		}
+	}
+
 	public static void closeStatement(Statement statement) {
 		if (statement != null) {
 			try {
 				statement.close();
 			} catch (SQLException exception) {
-				throw new DbException(exception.getMessage());
+				throw new DbException(exception.getMessage(), exception);
 			}
 		}
 	}
@@ -51,7 +150,7 @@ public class DB {
 			try {
 				resultSet.close();
 			} catch (SQLException exception) {
-				throw new DbException(exception.getMessage());
+				throw new DbException(exception.getMessage(), exception);
 			}
 		}
 	}
@@ -62,7 +161,7 @@ public class DB {
 			properties.load(fs);
 			return properties;
 		} catch (IOException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		}
 	}
 
@@ -0,0 +1,18 @@
+package db;
+
+public class DbConcurrencyException extends DbException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Integer id;
+
+	public DbConcurrencyException(String message, Integer id) {
+		super(message);
+		this.id = id;
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+}
@@ -8,4 +8,8 @@ public class DbIntegrityException extends RuntimeException {
 		super(message);
 	}
 
+	public DbIntegrityException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
 }
@@ -0,0 +1,90 @@
+package db;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+// H2 running inside the application in MySQL mode, so the JDBC DAOs work against it unchanged
+public class EmbeddedDatabase {
+
+	public static final String SCHEMA_SCRIPT = "script_banco.sql";
+
+	private EmbeddedDatabase() {
+	}
+
+	// an empty path keeps the database in memory for the life of the process, otherwise it lives in <path>.mv.db
+	public static String url(String path) {
+		if (path == null || path.trim().isEmpty()) {
+			return "jdbc:h2:mem:departments;MODE=MySQL;DB_CLOSE_DELAY=-1";
+		}
+		return "jdbc:h2:file:" + Paths.get(path.trim()).toAbsolutePath() + ";MODE=MySQL";
+	}
+
+	// points DB at the embedded database and creates the schema the first time
+	public static synchronized void start(String path) {
+		Properties properties = new Properties();
+		Properties current = DB.getProperties();
+		for (String key : current.stringPropertyNames()) {
+			// the MySQL driver settings (useSSL, rewriteBatchedStatements...) are rejected by H2
+			if (key.contains(".")) {
+				properties.setProperty(key, current.getProperty(key));
+			}
+		}
+		properties.setProperty("dburl", url(path));
+		properties.setProperty("user", current.getProperty("embedded.user", "sa"));
+		properties.setProperty("password", current.getProperty("embedded.password", ""));
+		DB.setProperties(properties);
+
+		Connection conn = DB.getConnection();
+		try {
+			if (!hasTable(conn, "seller")) {
+				createSchema(conn, Paths.get(SCHEMA_SCRIPT));
+			}
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	public static void createSchema(Connection conn, Path script) {
+		Statement statement = null;
+		try {
+			String sql = new String(Files.readAllBytes(script), StandardCharsets.UTF_8);
+			statement = conn.createStatement();
+			for (String command : sql.split(";")) {
+				if (!command.trim().isEmpty()) {
+					statement.execute(command);
+				}
+			}
+		} catch (IOException | SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(statement);
+		}
+	}
+
+	private static boolean hasTable(Connection conn, String table) throws SQLException {
+		DatabaseMetaData metaData = conn.getMetaData();
+		ResultSet resultSet = metaData.getTables(null, null, "%", new String[] { "TABLE" });
+		try {
+			while (resultSet.next()) {
+				if (table.equalsIgnoreCase(resultSet.getString("TABLE_NAME"))) {
+					return true;
+				}
+			}
+			return false;
+		} finally {
+			DB.closeResultSet(resultSet);
+		}
+	}
+
+}
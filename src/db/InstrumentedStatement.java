@@ -0,0 +1,151 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+// times the execute calls of one prepared statement and keeps its binds for the slow-query log
+class InstrumentedStatement implements InvocationHandler {
+
+	private static final int MAX_BIND_LENGTH = 100;
+
+	private final PreparedStatement statement;
+	private final String sql;
+	private final QueryStats stats;
+	private final Map<Integer, Object> binds = new TreeMap<>();
+
+	private InstrumentedStatement(PreparedStatement statement, String sql, QueryStats stats) {
+		this.statement = statement;
+		this.sql = sql;
+		this.stats = stats;
+	}
+
+	static PreparedStatement wrap(PreparedStatement statement, String sql, QueryStats stats) {
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new InstrumentedStatement(statement, sql, stats));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		if (name.startsWith("execute")) {
+			return execute(method, args);
+		}
+		switch (name) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "clearParameters":
+			binds.clear();
+			break;
+		case "setNull":
+			binds.put((Integer) args[0], null);
+			break;
+		default:
+			// setString(1, ...), setInt(2, ...) and friends; setFetchSize and the like take a single argument
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+				binds.put((Integer) args[0], args[1]);
+			}
+			break;
+		}
+		return invokeTarget(method, args);
+	}
+
+	private Object execute(Method method, Object[] args) throws Throwable {
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = invokeTarget(method, args);
+		} catch (Throwable throwable) {
+			long elapsed = System.nanoTime() - start;
+			stats.recordError(elapsed);
+			if (QueryMetrics.isSlow(elapsed)) {
+				QueryMetrics.slowQuery(sql, elapsed, describeBinds(), throwable);
+			}
+			throw throwable;
+		}
+		long elapsed = System.nanoTime() - start;
+		stats.record(elapsed);
+		if (QueryMetrics.isSlow(elapsed)) {
+			QueryMetrics.slowQuery(sql, elapsed, describeBinds(), null);
+		}
+
+		if (result instanceof ResultSet) {
+			return countRows((ResultSet) result);
+		}
+		if (result instanceof Integer) {
+			stats.addRows(Math.max((Integer) result, 0));
+		} else if (result instanceof Long) {
+			stats.addRows(Math.max((Long) result, 0));
+		} else if (result instanceof int[]) {
+			for (int count : (int[]) result) {
+				stats.addRows(Math.max(count, 0));
+			}
+		} else if (result instanceof long[]) {
+			for (long count : (long[]) result) {
+				stats.addRows(Math.max(count, 0));
+			}
+		}
+		return result;
+	}
+
+	// rows are counted as they are read, so streaming queries are counted too
+	private ResultSet countRows(ResultSet resultSet) {
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					default:
+						break;
+					}
+					Object result;
+					try {
+						result = method.invoke(resultSet, args);
+					} catch (InvocationTargetException exception) {
+						throw exception.getCause();
+					}
+					if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+						stats.addRows(1);
+					}
+					return result;
+				});
+	}
+
+	private String describeBinds() {
+		StringBuilder text = new StringBuilder("[");
+		for (Map.Entry<Integer, Object> bind : binds.entrySet()) {
+			if (text.length() > 1) {
+				text.append(", ");
+			}
+			text.append(bind.getKey()).append('=');
+			Object value = bind.getValue();
+			if (value instanceof String) {
+				String string = (String) value;
+				text.append('\'')
+						.append(string.length() > MAX_BIND_LENGTH ? string.substring(0, MAX_BIND_LENGTH) + "..." : string)
+						.append('\'');
+			} else {
+				text.append(value);
+			}
+		}
+		return text.append(']').toString();
+	}
+
+	private Object invokeTarget(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(statement, args);
+		} catch (InvocationTargetException exception) {
+			throw exception.getCause();
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+package db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+
+	// bucket i holds samples up to 2^i microseconds
+	private static final int BUCKETS = 40;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+	public void record(long nanos) {
+		long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1L);
+		int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros - 1), BUCKETS - 1);
+		buckets.incrementAndGet(bucket);
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public double getMeanMillis() {
+		long samples = count.sum();
+		return samples == 0 ? 0.0 : totalNanos.sum() / (double) samples / 1_000_000.0;
+	}
+
+	public double getMaxMillis() {
+		return maxNanos.get() / 1_000_000.0;
+	}
+
+	public double getPercentileMillis(double percentile) {
+		long samples = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = buckets.get(i);
+			samples += snapshot[i];
+		}
+		if (samples == 0) {
+			return 0.0;
+		}
+		long rank = (long) Math.ceil(percentile / 100.0 * samples);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min((1L << i) / 1000.0, getMaxMillis());
+			}
+		}
+		return getMaxMillis();
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0L);
+		}
+		count.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, mean=%.3fms, p50=%.3fms, p95=%.3fms, p99=%.3fms, max=%.3fms", getCount(),
+				getMeanMillis(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99),
+				getMaxMillis());
+	}
+
+}
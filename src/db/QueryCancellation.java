@@ -0,0 +1,84 @@
+package db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// lets another thread stop the statements a unit of work is running, e.g. when the user presses Cancel;
+// cancelling a future does not interrupt JDBC, so without this the query keeps running and holds its connection
+public class QueryCancellation {
+
+	private static final ThreadLocal<QueryCancellation> current = new ThreadLocal<>();
+
+	private final List<Statement> statements = new ArrayList<>();
+	private boolean cancelled = false;
+	private boolean finished = false;
+
+	public <T> T run(Supplier<T> work) {
+		QueryCancellation previous = current.get();
+		current.set(this);
+		try {
+			synchronized (this) {
+				if (cancelled) {
+					throw new DbException("Query cancelled");
+				}
+			}
+			return work.get();
+		} finally {
+			current.set(previous);
+			synchronized (this) {
+				// the statements go back to the statement cache and may run for someone else from now on
+				finished = true;
+				statements.clear();
+			}
+		}
+	}
+
+	// runs under the lock untrack() takes, so a statement can not go back to the statement cache, and be
+	// checked out by another query, while it is being cancelled
+	public synchronized void cancel() {
+		cancelled = true;
+		if (finished) {
+			return;
+		}
+		for (Statement statement : statements) {
+			try {
+				statement.cancel();
+			} catch (SQLException exception) {
+				// the statement already finished or its connection is gone, either way it is not running
+			}
+		}
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	// called by the pool for every statement prepared on this thread
+	static void track(Statement statement) {
+		QueryCancellation cancellation = current.get();
+		if (cancellation == null) {
+			return;
+		}
+		synchronized (cancellation) {
+			if (cancellation.cancelled) {
+				throw new DbException("Query cancelled");
+			}
+			cancellation.statements.add(statement);
+		}
+	}
+
+	// called by the statement cache before a closed statement can be handed out again
+	static void untrack(Statement statement) {
+		QueryCancellation cancellation = current.get();
+		if (cancellation == null) {
+			return;
+		}
+		synchronized (cancellation) {
+			cancellation.statements.remove(statement);
+		}
+	}
+
+}
@@ -0,0 +1,243 @@
+package db;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class QueryMetrics {
+
+	public static final String OBJECT_NAME = "application:type=QueryMetrics";
+
+	// SQL built with a variable number of placeholders would otherwise grow the map without bound
+	private static final String OTHER = "(other)";
+	private static final int SLOW_QUERY_HISTORY = 100;
+
+	private static final Map<String, QueryStats> statistics = new ConcurrentHashMap<>();
+	private static final Deque<String> slowQueries = new ArrayDeque<>();
+	private static volatile Settings settings;
+
+	private QueryMetrics() {
+	}
+
+	// read once from db.properties; when off, nothing is wrapped and the only cost is this check
+	public static boolean isEnabled() {
+		return settings().enabled;
+	}
+
+	public static long getSlowQueryMillis() {
+		return settings().slowQueryMillis;
+	}
+
+	public static synchronized void setSlowQueryMillis(long slowQueryMillis) {
+		Settings current = settings();
+		settings = new Settings(current.enabled, slowQueryMillis, current.maxStatements);
+	}
+
+	public static List<QueryStats> getStatistics() {
+		List<QueryStats> list = new ArrayList<>(statistics.values());
+		list.sort(Comparator.comparing(QueryStats::getName));
+		return list;
+	}
+
+	public static List<String> getSlowQueries() {
+		synchronized (slowQueries) {
+			return new ArrayList<>(slowQueries);
+		}
+	}
+
+	public static void reset() {
+		statistics.values().forEach(QueryStats::reset);
+		synchronized (slowQueries) {
+			slowQueries.clear();
+		}
+	}
+
+	// wraps a DAO so every interface method is timed under "SellerDao.findAll()" and the like
+	public static <T> T instrument(Class<T> type, T target) {
+		if (!isEnabled()) {
+			return target;
+		}
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				new InstrumentedDao(type.getSimpleName(), target)));
+	}
+
+	static PreparedStatement instrument(PreparedStatement statement, String sql) {
+		return isEnabled() ? InstrumentedStatement.wrap(statement, sql, statsFor(sql)) : statement;
+	}
+
+	static QueryStats statsFor(String name) {
+		QueryStats stats = statistics.get(name);
+		if (stats != null) {
+			return stats;
+		}
+		String key = statistics.size() < settings().maxStatements ? name : OTHER;
+		return statistics.computeIfAbsent(key, QueryStats::new);
+	}
+
+	static boolean isSlow(long nanos) {
+		return nanos >= settings().slowQueryMillis * 1_000_000L;
+	}
+
+	static void slowQuery(String sql, long nanos, String binds, Throwable failure) {
+		String entry = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS) + " "
+				+ String.format("%.1f", nanos / 1_000_000.0) + "ms " + sql + " " + binds
+				+ (failure == null ? "" : " failed: " + failure.getMessage());
+		System.err.println("Slow query: " + entry);
+		synchronized (slowQueries) {
+			if (slowQueries.size() >= SLOW_QUERY_HISTORY) {
+				slowQueries.removeLast();
+			}
+			slowQueries.addFirst(entry);
+		}
+	}
+
+	// db.properties is swapped by DB.setProperties, the settings follow it
+	static synchronized void reload() {
+		settings = null;
+	}
+
+	public static synchronized void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new Management(), name);
+			}
+		} catch (JMException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		}
+	}
+
+	private static Settings settings() {
+		Settings current = settings;
+		if (current == null) {
+			synchronized (QueryMetrics.class) {
+				if (settings == null) {
+					Properties properties = DB.getProperties();
+					settings = new Settings(Boolean.parseBoolean(properties.getProperty("metrics.enabled", "false")),
+							DB.getIntProperty("metrics.slowQueryMillis", 500),
+							DB.getIntProperty("metrics.maxStatements", 200));
+				}
+				current = settings;
+			}
+		}
+		return current;
+	}
+
+	private static final class Settings {
+
+		private final boolean enabled;
+		private final long slowQueryMillis;
+		private final int maxStatements;
+
+		private Settings(boolean enabled, long slowQueryMillis, int maxStatements) {
+			this.enabled = enabled;
+			this.slowQueryMillis = slowQueryMillis;
+			this.maxStatements = maxStatements;
+		}
+
+	}
+
+	private static class InstrumentedDao implements InvocationHandler {
+
+		private final String prefix;
+		private final Object target;
+		private final Map<Method, QueryStats> byMethod = new ConcurrentHashMap<>();
+
+		private InstrumentedDao(String prefix, Object target) {
+			this.prefix = prefix;
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getDeclaringClass() == Object.class) {
+				switch (method.getName()) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				default:
+					return prefix + "[" + target + "]";
+				}
+			}
+			QueryStats stats = byMethod.computeIfAbsent(method, this::statsFor);
+			long start = System.nanoTime();
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException exception) {
+				stats.recordError(System.nanoTime() - start);
+				throw exception.getCause();
+			}
+			stats.record(System.nanoTime() - start);
+			if (result instanceof Collection) {
+				stats.addRows(((Collection<?>) result).size());
+			}
+			return result;
+		}
+
+		private QueryStats statsFor(Method method) {
+			StringBuilder name = new StringBuilder(prefix).append('.').append(method.getName()).append('(');
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			for (int i = 0; i < parameterTypes.length; i++) {
+				name.append(i == 0 ? "" : ", ").append(parameterTypes[i].getSimpleName());
+			}
+			return QueryMetrics.statsFor(name.append(')').toString());
+		}
+
+	}
+
+	private static class Management implements QueryMetricsMXBean {
+
+		@Override
+		public boolean isEnabled() {
+			return QueryMetrics.isEnabled();
+		}
+
+		@Override
+		public long getSlowQueryMillis() {
+			return QueryMetrics.getSlowQueryMillis();
+		}
+
+		@Override
+		public void setSlowQueryMillis(long slowQueryMillis) {
+			QueryMetrics.setSlowQueryMillis(slowQueryMillis);
+		}
+
+		@Override
+		public List<QueryStats> getStatistics() {
+			return QueryMetrics.getStatistics();
+		}
+
+		@Override
+		public List<String> getSlowQueries() {
+			return QueryMetrics.getSlowQueries();
+		}
+
+		@Override
+		public void reset() {
+			QueryMetrics.reset();
+		}
+
+	}
+
+}
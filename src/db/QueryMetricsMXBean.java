@@ -0,0 +1,19 @@
+package db;
+
+import java.util.List;
+
+public interface QueryMetricsMXBean {
+
+	boolean isEnabled();
+
+	long getSlowQueryMillis();
+
+	void setSlowQueryMillis(long slowQueryMillis);
+
+	List<QueryStats> getStatistics();
+
+	List<String> getSlowQueries();
+
+	void reset();
+
+}
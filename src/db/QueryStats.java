@@ -0,0 +1,78 @@
+package db;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// counters for one SQL statement or DAO method; a failed call still counts towards the latency
+public class QueryStats {
+
+	private final String name;
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+
+	QueryStats(String name) {
+		this.name = name;
+	}
+
+	void record(long nanos) {
+		latency.record(nanos);
+	}
+
+	void recordError(long nanos) {
+		latency.record(nanos);
+		errors.increment();
+	}
+
+	void addRows(long count) {
+		rows.add(count);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCalls() {
+		return latency.getCount();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	// rows read from result sets, rows changed by updates, or the size of a returned list
+	public long getRows() {
+		return rows.sum();
+	}
+
+	public double getMeanMillis() {
+		return latency.getMeanMillis();
+	}
+
+	public double getP50Millis() {
+		return latency.getPercentileMillis(50);
+	}
+
+	public double getP95Millis() {
+		return latency.getPercentileMillis(95);
+	}
+
+	public double getP99Millis() {
+		return latency.getPercentileMillis(99);
+	}
+
+	public double getMaxMillis() {
+		return latency.getMaxMillis();
+	}
+
+	void reset() {
+		latency.reset();
+		errors.reset();
+		rows.reset();
+	}
+
+	@Override
+	public String toString() {
+		return name + ": errors=" + getErrors() + ", rows=" + getRows() + ", " + latency;
+	}
+
+}
@@ -0,0 +1,224 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// one pool per replica URL; reads are spread over the replicas that are reachable and not lagging
+public class ReplicaRouter {
+
+	private final List<Replica> replicas = new ArrayList<>();
+	private final boolean leastLoaded;
+	private final long maxLagSeconds;
+	private final String lagQuery;
+	private final String lagColumn;
+	private final AtomicInteger next = new AtomicInteger();
+	private final ScheduledExecutorService lagChecker;
+
+	public ReplicaRouter(Properties properties) {
+		this.leastLoaded = "least-loaded".equals(properties.getProperty("replica.strategy", "round-robin").trim());
+		this.maxLagSeconds = DB.intProperty(properties, "replica.maxLagSeconds", 5);
+		this.lagQuery = properties.getProperty("replica.lagQuery", "SHOW REPLICA STATUS").trim();
+		this.lagColumn = properties.getProperty("replica.lagColumn", "Seconds_Behind_Source").trim();
+
+		for (String url : properties.getProperty("replica.urls", "").split(",")) {
+			if (!url.trim().isEmpty()) {
+				Properties replicaProperties = new Properties();
+				replicaProperties.putAll(properties);
+				replicaProperties.setProperty("dburl", url.trim());
+				copy(properties, replicaProperties, "replica.user", "user");
+				copy(properties, replicaProperties, "replica.password", "password");
+				// a busy replica should send the read elsewhere right away, not after the primary's acquire timeout
+				replicaProperties.setProperty("pool.acquireTimeoutMillis",
+						String.valueOf(DB.intProperty(properties, "replica.acquireTimeoutMillis", 250)));
+				replicas.add(new Replica(url.trim(), new ConnectionPool(replicaProperties)));
+			}
+		}
+
+		if (replicas.isEmpty()) {
+			lagChecker = null;
+			return;
+		}
+		lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "replica-lag-checker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(DB.intProperty(properties, "replica.lagCheckMillis", 5000), 100);
+		lagChecker.scheduleWithFixedDelay(this::checkLag, 0, period, TimeUnit.MILLISECONDS);
+	}
+
+	public boolean hasReplicas() {
+		return !replicas.isEmpty();
+	}
+
+	// null when no replica can serve the read, the caller then goes to the primary
+	public Connection getConnection() {
+		int size = replicas.size();
+		if (size == 0) {
+			return null;
+		}
+		List<Replica> candidates = new ArrayList<>(size);
+		int start = Math.floorMod(next.getAndIncrement(), size);
+		for (int i = 0; i < size; i++) {
+			Replica replica = replicas.get((start + i) % size);
+			if (replica.healthy) {
+				candidates.add(replica);
+			}
+		}
+		if (leastLoaded) {
+			candidates.sort(Comparator.comparingInt(replica -> replica.pool.getActiveCount()));
+		}
+		for (Replica replica : candidates) {
+			try {
+				return replica.pool.getConnection();
+			} catch (DbException exception) {
+				// a replica that can not be reached is skipped until the next lag check puts it back; one that is
+				// only busy (its pool timed out) stays in rotation, the read just tries elsewhere
+				if (isConnectionFailure(exception)) {
+					replica.markDown(exception.getMessage());
+				}
+			}
+		}
+		return null;
+	}
+
+	public List<Replica> getReplicas() {
+		return Collections.unmodifiableList(replicas);
+	}
+
+	public void close() {
+		if (lagChecker != null) {
+			lagChecker.shutdownNow();
+		}
+		replicas.forEach(replica -> replica.pool.close());
+	}
+
+	private void checkLag() {
+		for (Replica replica : replicas) {
+			Connection conn = null;
+			Statement statement = null;
+			ResultSet resultSet = null;
+			try {
+				conn = replica.pool.getConnection();
+				if (lagQuery.isEmpty()) {
+					replica.markUp(0);
+					continue;
+				}
+				statement = conn.createStatement();
+				resultSet = statement.executeQuery(lagQuery);
+				if (!resultSet.next()) {
+					// not set up as a replica (a second local instance, say): nothing to lag behind
+					replica.markUp(0);
+					continue;
+				}
+				long lag = resultSet.getLong(lagColumn);
+				if (resultSet.wasNull()) {
+					replica.markDown("replication is not running");
+				} else if (lag > maxLagSeconds) {
+					replica.lagSeconds = lag;
+					replica.markDown(lag + "s behind the primary");
+				} else {
+					replica.markUp(lag);
+				}
+			} catch (SQLException exception) {
+				replica.markDown(exception.getMessage());
+			} catch (DbException exception) {
+				// no free connection for the check says nothing about the replica, it keeps its last status
+				if (isConnectionFailure(exception)) {
+					replica.markDown(exception.getMessage());
+				}
+			} finally {
+				try {
+					DB.closeResultSet(resultSet);
+					DB.closeStatement(statement);
+					DB.closeConnection(conn);
+				} catch (DbException exception) {
+					// the replica is already marked down
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ReplicaRouter{" + "strategy=" + (leastLoaded ? "least-loaded" : "round-robin") + ", replicas="
+				+ replicas + '}';
+	}
+
+	// the pool wraps the driver's SQLException when it can not open a connection; timeouts carry no cause
+	private static boolean isConnectionFailure(DbException exception) {
+		return exception.getCause() instanceof SQLException;
+	}
+
+	private static void copy(Properties from, Properties to, String fromKey, String toKey) {
+		String value = from.getProperty(fromKey);
+		if (value != null) {
+			to.setProperty(toKey, value);
+		}
+	}
+
+	public static class Replica {
+
+		private final String url;
+		private final ConnectionPool pool;
+		// reads wait for the first lag check instead of trusting a replica nobody has looked at
+		private volatile boolean healthy = false;
+		private volatile long lagSeconds = 0;
+		private volatile String status = "not checked yet";
+
+		private Replica(String url, ConnectionPool pool) {
+			this.url = url;
+			this.pool = pool;
+		}
+
+		private void markUp(long lag) {
+			lagSeconds = lag;
+			status = "ok";
+			healthy = true;
+		}
+
+		private void markDown(String reason) {
+			status = reason;
+			healthy = false;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public boolean isHealthy() {
+			return healthy;
+		}
+
+		public long getLagSeconds() {
+			return lagSeconds;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+
+		public ConnectionPool getPool() {
+			return pool;
+		}
+
+		@Override
+		public String toString() {
+			return "Replica{" + "url=" + url + ", healthy=" + healthy + ", lagSeconds=" + lagSeconds + ", status="
+					+ status + ", active=" + pool.getActiveCount() + '}';
+		}
+
+	}
+
+}
@@ -0,0 +1,135 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+class StatementCache {
+
+	private final int capacity;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final Map<String, CachedStatement> statements;
+
+	StatementCache(int capacity, LongAdder hits, LongAdder misses) {
+		this.capacity = capacity;
+		this.hits = hits;
+		this.misses = misses;
+		this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+				if (size() > StatementCache.this.capacity) {
+					eldest.getValue().evict();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	PreparedStatement prepare(Connection physical, String sql, int autoGeneratedKeys) throws SQLException {
+		if (capacity <= 0) {
+			return physical.prepareStatement(sql, autoGeneratedKeys);
+		}
+		String key = autoGeneratedKeys + ":" + sql;
+		CachedStatement cached = statements.get(key);
+
+		if (cached != null && !cached.inUse) {
+			hits.increment();
+			cached.inUse = true;
+			return cached.proxy;
+		}
+
+		misses.increment();
+		PreparedStatement preparedStatement = physical.prepareStatement(sql, autoGeneratedKeys);
+		if (cached != null) {
+			// the same SQL is still open on this connection, hand out a private copy
+			return preparedStatement;
+		}
+		cached = new CachedStatement(preparedStatement);
+		cached.inUse = true;
+		statements.put(key, cached);
+		return cached.proxy;
+	}
+
+	void closeAll() {
+		List<CachedStatement> toClose = new ArrayList<>(statements.values());
+		statements.clear();
+		toClose.forEach(CachedStatement::evict);
+	}
+
+	private static class CachedStatement implements InvocationHandler {
+
+		private final PreparedStatement statement;
+		private final PreparedStatement proxy;
+		private boolean inUse = false;
+		private boolean evicted = false;
+
+		private CachedStatement(PreparedStatement statement) {
+			this.statement = statement;
+			this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, this);
+		}
+
+		private void evict() {
+			evicted = true;
+			if (!inUse) {
+				closeQuietly();
+			}
+		}
+
+		private void closeQuietly() {
+			try {
+				statement.close();
+			} catch (SQLException exception) {
+				// the statement is being thrown away anyway
+			}
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (inUse) {
+					QueryCancellation.untrack((Statement) proxy);
+					inUse = false;
+					if (evicted) {
+						closeQuietly();
+					} else {
+						statement.clearParameters();
+						statement.clearBatch();
+					}
+				}
+				return null;
+			case "isClosed":
+				return !inUse || statement.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				break;
+			}
+			try {
+				return method.invoke(statement, args);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,189 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TransactionManager {
+
+	public static final int DEFAULT_ISOLATION = -1;
+
+	// MySQL: 1213 = deadlock found, 1205 = lock wait timeout; SQLState 40001 = serialization failure
+	private static final int ER_LOCK_DEADLOCK = 1213;
+	private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+	private static final String SERIALIZATION_FAILURE = "40001";
+
+	private static final ThreadLocal<Transaction> current = new ThreadLocal<>();
+
+	private TransactionManager() {
+	}
+
+	public static void run(Runnable work) {
+		execute(DEFAULT_ISOLATION, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	public static <T> T execute(TransactionWork<T> work) {
+		return execute(DEFAULT_ISOLATION, work);
+	}
+
+	// joins the transaction already bound to this thread, otherwise opens one and retries it on deadlock
+	public static <T> T execute(int isolationLevel, TransactionWork<T> work) {
+		if (current.get() != null) {
+			return work.execute();
+		}
+
+		int retries = DB.getIntProperty("tx.deadlockRetries", 3);
+		long backoffMillis = DB.getIntProperty("tx.retryBackoffMillis", 50);
+		for (int attempt = 0;; attempt++) {
+			try {
+				return executeOnce(isolationLevel, work);
+			} catch (RuntimeException exception) {
+				if (attempt >= retries || !isRetryable(exception)) {
+					throw exception;
+				}
+				sleep(backoffMillis << attempt);
+			}
+		}
+	}
+
+	private static <T> T executeOnce(int isolationLevel, TransactionWork<T> work) {
+		Connection conn = DB.getConnectionPool().getConnection();
+		Transaction transaction = new Transaction(conn);
+		int previousIsolation = Connection.TRANSACTION_NONE;
+		T result;
+		try {
+			if (isolationLevel != DEFAULT_ISOLATION) {
+				previousIsolation = conn.getTransactionIsolation();
+				conn.setTransactionIsolation(isolationLevel);
+			}
+			conn.setAutoCommit(false);
+			current.set(transaction);
+
+			result = work.execute();
+			conn.commit();
+			DB.recordWrite();
+		} catch (SQLException exception) {
+			rollback(conn);
+			throw new DbException(exception.getMessage(), exception);
+		} catch (RuntimeException exception) {
+			rollback(conn);
+			throw exception;
+		} finally {
+			current.remove();
+			try {
+				if (previousIsolation != Connection.TRANSACTION_NONE) {
+					conn.setTransactionIsolation(previousIsolation);
+				}
+			} catch (SQLException exception) {
+				// the pool validates the connection again before lending it out
+			}
+			DB.closeConnection(conn);
+		}
+		transaction.runAfterCommit();
+		return result;
+	}
+
+	public static boolean isActive() {
+		return current.get() != null;
+	}
+
+	static Connection currentConnection() {
+		Transaction transaction = current.get();
+		return transaction == null ? null : transaction.connection;
+	}
+
+	// runs once the surrounding transaction commits, or right away when there is none
+	public static void afterCommit(Runnable action) {
+		Transaction transaction = current.get();
+		if (transaction == null) {
+			action.run();
+		} else {
+			transaction.afterCommit.add(action);
+		}
+	}
+
+	public static Savepoint setSavepoint(String name) {
+		try {
+			return requireConnection().setSavepoint(name);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		}
+	}
+
+	public static void rollbackTo(Savepoint savepoint) {
+		try {
+			requireConnection().rollback(savepoint);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		}
+	}
+
+	public static void releaseSavepoint(Savepoint savepoint) {
+		try {
+			requireConnection().releaseSavepoint(savepoint);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		}
+	}
+
+	private static Connection requireConnection() {
+		Connection conn = currentConnection();
+		if (conn == null) {
+			throw new DbException("No transaction is active on this thread");
+		}
+		return conn;
+	}
+
+	private static void rollback(Connection conn) {
+		try {
+			conn.rollback();
+		} catch (SQLException exception) {
+			// the pool rolls back again, or discards the connection, when it is released
+		}
+	}
+
+	private static boolean isRetryable(Throwable throwable) {
+		for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException) {
+				SQLException sqlException = (SQLException) cause;
+				if (sqlException.getErrorCode() == ER_LOCK_DEADLOCK
+						|| sqlException.getErrorCode() == ER_LOCK_WAIT_TIMEOUT
+						|| SERIALIZATION_FAILURE.equals(sqlException.getSQLState())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void sleep(long backoffMillis) {
+		try {
+			Thread.sleep(backoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis + 1));
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while retrying transaction");
+		}
+	}
+
+	private static class Transaction {
+
+		private final Connection connection;
+		private final List<Runnable> afterCommit = new ArrayList<>();
+
+		private Transaction(Connection connection) {
+			this.connection = connection;
+		}
+
+		private void runAfterCommit() {
+			afterCommit.forEach(Runnable::run);
+		}
+
+	}
+
+}
@@ -0,0 +1,8 @@
+package db;
+
+@FunctionalInterface
+public interface TransactionWork<T> {
+
+	T execute();
+
+}
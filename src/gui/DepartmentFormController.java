@@ -1,14 +1,12 @@
 package gui;
 
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-import db.DbException;
-import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
 import gui.util.Utils;
@@ -18,7 +16,9 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import model.entities.Department;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
@@ -27,7 +27,9 @@ public class DepartmentFormController implements Initializable {
 
 	private DepartmentService departmentService;
 	private Department department;
-	private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+	private CompletableFuture<Void> pendingSave;
+	// the dialog is reused, so replies meant for a department bound earlier are dropped
+	private int binding;
 
 	@FXML
 	private TextField txtId;
@@ -44,6 +46,9 @@ public class DepartmentFormController implements Initializable {
 	@FXML
 	private Button btCancel;
 
+	@FXML
+	private ProgressIndicator progressIndicator;
+
 	@FXML
 	private void onBtSaveAction(ActionEvent actionEvent) {
 		if (department == null) {
@@ -54,18 +59,37 @@ public class DepartmentFormController implements Initializable {
 		}
 		try {
 			department = getFormData();
-			departmentService.saveOrUpdate(department);
-			notifyDataChangeListeners();
-			Utils.currentStage(actionEvent).close();
+			Stage stage = Utils.currentStage(actionEvent);
+
+			// the service publishes the change, so a write that completes after cancel still reaches the list
+			int binding = this.binding;
+			pendingSave = departmentService.saveOrUpdateAsync(department);
+			setSaving(true);
+
+			Utils.onFxThread(pendingSave, result -> {
+				if (binding != this.binding) {
+					return;
+				}
+				setSaving(false);
+				stage.close();
+			}, throwable -> {
+				if (binding != this.binding) {
+					return;
+				}
+				setSaving(false);
+				Alerts.showAlert("Error saving Department", null, throwable.getMessage(), AlertType.ERROR);
+			});
 		} catch (ValidationException exception) {
 			setErrorMessages(exception.getErrors());
-		} catch (DbException exception) {
-			Alerts.showAlert("Error saving Department", null, exception.getMessage(), AlertType.ERROR);
 		}
 	}
 
-	private void notifyDataChangeListeners() {
-		dataChangeListeners.forEach(x -> x.onDataChanged());
+	private void setSaving(boolean saving) {
+		btSave.setDisable(saving);
+		progressIndicator.setVisible(saving);
+		if (!saving) {
+			pendingSave = null;
+		}
 	}
 
 	private Department getFormData() {
@@ -73,6 +97,7 @@ public class DepartmentFormController implements Initializable {
 		ValidationException validationException = new ValidationException("Validation error");
 
 		department.setId(Utils.tryParseToInt(txtId.getText()));
+		department.setVersion(this.department.getVersion());
 
 		if (txtName.getText() == null || txtName.getText().trim().equals("")) {
 			validationException.addError("name", "Field can't be empty");
@@ -90,13 +115,15 @@ public class DepartmentFormController implements Initializable {
 	private void setErrorMessages(Map<String, String> errors) {
 		Set<String> fields = errors.keySet();
 
-		if (fields.contains("name")) {
-			labelErrorName.setText(errors.get("name"));
-		}
+		labelErrorName.setText((fields.contains("name") ? errors.get("name") : ""));
 	}
 
 	@FXML
 	private void onBtCancelAction(ActionEvent actionEvent) {
+		if (pendingSave != null) {
+			pendingSave.cancel(true);
+			setSaving(false);
+		}
 		Utils.currentStage(actionEvent).close();
 	}
 
@@ -116,10 +143,8 @@ public class DepartmentFormController implements Initializable {
 		}
 		txtId.setText(String.valueOf(department.getId()));
 		txtName.setText(department.getName());
-	}
-
-	public void subscribeDataChangeListener(DataChangeListener dataChangeListener) {
-		dataChangeListeners.add(dataChangeListener);
+		setErrorMessages(Collections.emptyMap());
+		setSaving(false);
 	}
 
 	public void setDepartmentService(DepartmentService departmentService) {
@@ -128,6 +153,7 @@ public class DepartmentFormController implements Initializable {
 
 	public void setDepartment(Department department) {
 		this.department = department;
+		binding++;
 	}
 
 }
@@ -2,64 +2,94 @@ package gui;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.List;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 import application.Main;
 import db.DbIntegrityException;
-import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.DialogPool;
 import gui.util.Utils;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.dao.DepartmentSummary;
 import model.entities.Department;
+import model.entities.Seller;
 import model.services.DepartmentService;
+import model.services.EntityChangeEvent;
+import model.services.EntityChangeListener;
+import model.services.SellerService;
 
-public class DepartmentListController implements Initializable, DataChangeListener {
+public class DepartmentListController implements Initializable, EntityChangeListener<Department> {
+
+	private static final Comparator<DepartmentSummary> DEPARTMENT_ORDER = Comparator
+			.comparing(DepartmentSummary::getName, String.CASE_INSENSITIVE_ORDER)
+			.thenComparing(DepartmentSummary::getId);
 
 	private DepartmentService departmentService;
+	private final DialogPool<DepartmentFormController> formPool = new DialogPool<>("/gui/DepartmentForm.fxml",
+			"Department Registration", departmentFormController -> departmentFormController
+					.setDepartmentService(departmentService));
+
+	// seller writes move the counts; kept in a field because the services only hold listeners weakly
+	private final EntityChangeListener<Seller> sellerListener = event -> Platform.runLater(
+			() -> applySellerChange(event));
+	// a burst of changes (an import, a change feed batch) ends in one recount instead of one per event
+	private final PauseTransition recountDelay = new PauseTransition(Duration.millis(300));
+	// changes that arrive while another view is shown are only counted once this one is shown again
+	private boolean countsStale = false;
+	private boolean loading = false;
+
+	@FXML
+	private TableView<DepartmentSummary> tableViewDepartment;
+	private ObservableList<DepartmentSummary> observableListDepartment;
 
 	@FXML
-	private TableView<Department> tableViewDepartment;
-	private ObservableList<Department> observableListDepartment;
+	private TableColumn<DepartmentSummary, Integer> tableColumnId;
 
 	@FXML
-	private TableColumn<Department, Integer> tableColumnId;
+	private TableColumn<DepartmentSummary, String> tableColumnName;
 
 	@FXML
-	private TableColumn<Department, String> tableColumnName;
+	private TableColumn<DepartmentSummary, Long> tableColumnSellers;
 
 	@FXML
-	private TableColumn<Department, Department> tableColumnEDIT;
+	private TableColumn<DepartmentSummary, DepartmentSummary> tableColumnEDIT;
 
 	@FXML
-	private TableColumn<Department, Department> tableColumnREMOVE;
+	private TableColumn<DepartmentSummary, DepartmentSummary> tableColumnREMOVE;
 
 	@FXML
 	private Button btNew;
 
+	@FXML
+	private ProgressIndicator progressIndicator;
+
 	@FXML
 	public void onBtNewAction(ActionEvent actionEvent) {
 		Stage parentStage = Utils.currentStage(actionEvent);
 		Department department = new Department();
-		createDialogForm(department, "/gui/DepartmentForm.fxml", parentStage);
+		createDialogForm(department, parentStage);
 	}
 
 	@Override
@@ -70,73 +100,83 @@ public class DepartmentListController implements Initializable, DataChangeListen
 	private void initializeNodes() {
 		tableColumnId.setCellValueFactory(new PropertyValueFactory<>("id"));
 		tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
+		tableColumnSellers.setCellValueFactory(new PropertyValueFactory<>("sellerCount"));
+		initEditButtons();
+		initRemoveButtons();
 
 		// tamanho do TableView = tamanho da janela/stage
 		Stage stage = (Stage) Main.getMainScene().getWindow();
 		tableViewDepartment.prefHeightProperty().bind(stage.heightProperty());
+
+		recountDelay.setOnFinished(event -> updateTableView());
+		tableViewDepartment.sceneProperty().addListener((obs, oldScene, newScene) -> {
+			if (newScene != null && countsStale) {
+				updateTableView();
+			}
+		});
 	}
 
 	public void updateTableView() {
 		if (departmentService == null) {
 			throw new IllegalStateException("departmentService was null");
 		}
-		List<Department> departments = departmentService.findAll();
-		observableListDepartment = FXCollections.observableArrayList(departments);
-		tableViewDepartment.setItems(observableListDepartment);
-		initEditButtons();
-		initRemoveButtons();
+		countsStale = false;
+		recountDelay.stop();
+		loading = true;
+		progressIndicator.setVisible(true);
+		Utils.onFxThread(departmentService.findAllWithSellerCountAsync(), departments -> {
+			loading = false;
+			progressIndicator.setVisible(false);
+			observableListDepartment = FXCollections.observableArrayList(departments);
+			tableViewDepartment.setItems(observableListDepartment);
+		}, throwable -> {
+			loading = false;
+			progressIndicator.setVisible(false);
+			Alerts.showAlert("Error loading departments", null, throwable.getMessage(), AlertType.ERROR);
+		});
 	}
 
-	private void createDialogForm(Department department, String absoluteName, Stage parentStage) {
+	private void createDialogForm(Department department, Stage parentStage) {
 		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-			Pane pane = loader.load();
-
-			DepartmentFormController departmentFormController = loader.getController();
-			departmentFormController.setDepartmentService(new DepartmentService());
-			departmentFormController.setDepartment(department);
-			departmentFormController.subscribeDataChangeListener(this);
-			departmentFormController.updateFormData();
-
-			Stage dialogStage = new Stage();
-			dialogStage.setScene(new Scene(pane));
-			dialogStage.setTitle("Department Registration");
-			dialogStage.setResizable(false);
-			dialogStage.initOwner(parentStage);
-			dialogStage.initModality(Modality.WINDOW_MODAL);
-			dialogStage.showAndWait();
+			formPool.open(parentStage, departmentFormController -> {
+				departmentFormController.setDepartment(department);
+				departmentFormController.updateFormData();
+			});
 		} catch (IOException exception) {
 			exception.printStackTrace();
 			Alerts.showAlert("IO Exception", "Error loading view", exception.getMessage(), AlertType.ERROR);
 		}
 	}
 
+	public void prepareDialogs() {
+		formPool.prepareQuietly(Main.getMainScene().getWindow());
+	}
+
 	private void initEditButtons() {
 		tableColumnEDIT.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-		tableColumnEDIT.setCellFactory(param -> new TableCell<Department, Department>() {
+		tableColumnEDIT.setCellFactory(param -> new TableCell<DepartmentSummary, DepartmentSummary>() {
 			private final Button button = new Button("edit");
 
 			@Override
-			protected void updateItem(Department obj, boolean empty) {
+			protected void updateItem(DepartmentSummary obj, boolean empty) {
 				super.updateItem(obj, empty);
 				if (obj == null) {
 					setGraphic(null);
 					return;
 				}
 				setGraphic(button);
-				button.setOnAction(
-						event -> createDialogForm(obj, "/gui/DepartmentForm.fxml", Utils.currentStage(event)));
+				button.setOnAction(event -> createDialogForm(obj.getDepartment(), Utils.currentStage(event)));
 			}
 		});
 	}
 
 	private void initRemoveButtons() {
 		tableColumnREMOVE.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-		tableColumnREMOVE.setCellFactory(param -> new TableCell<Department, Department>() {
+		tableColumnREMOVE.setCellFactory(param -> new TableCell<DepartmentSummary, DepartmentSummary>() {
 			private final Button button = new Button("remove");
 
 			@Override
-			protected void updateItem(Department obj, boolean empty) {
+			protected void updateItem(DepartmentSummary obj, boolean empty) {
 				super.updateItem(obj, empty);
 				if (obj == null) {
 					setGraphic(null);
@@ -148,29 +188,165 @@ public class DepartmentListController implements Initializable, DataChangeListen
 		});
 	}
 
-	private void removeEntity(Department department) {
-		Optional<ButtonType> result = Alerts.showConfirmation("Confirmation", "Are you sure to delete?");
-
-		if (result.get() == ButtonType.OK) {
-			if (departmentService == null) {
-				throw new IllegalStateException("departmentService was null");
+	// the count shown in the row decides up front whether the sellers have to go too
+	private void removeEntity(DepartmentSummary summary) {
+		if (departmentService == null) {
+			throw new IllegalStateException("departmentService was null");
+		}
+		Department department = summary.getDepartment();
+		CompletableFuture<Void> removal;
+		if (summary.getSellerCount() == 0) {
+			Optional<ButtonType> result = Alerts.showConfirmation("Confirmation", "Are you sure to delete?");
+			if (!result.isPresent() || result.get() != ButtonType.OK) {
+				return;
 			}
-			try {
-				departmentService.remove(department);
-				updateTableView();
-			} catch (DbIntegrityException exception) {
-				Alerts.showAlert("Error removing department", null, exception.getMessage(), AlertType.ERROR);
+			removal = departmentService.removeAsync(department);
+		} else {
+			ButtonType cascade = new ButtonType("Delete sellers too");
+			Optional<ButtonType> result = Alerts.showConfirmation("Department has sellers",
+					department.getName() + " has " + summary.getSellerCount()
+							+ " seller(s). Delete the department together with its sellers?",
+					cascade, ButtonType.CANCEL);
+			if (!result.isPresent() || result.get() != cascade) {
+				return;
 			}
+			removal = departmentService.removeWithSellersAsync(department);
 		}
+
+		progressIndicator.setVisible(true);
+		Utils.onFxThread(removal, removed -> progressIndicator.setVisible(false), throwable -> {
+			progressIndicator.setVisible(false);
+			// a seller was added after the count was read; the reload shows the new count
+			if (throwable instanceof DbIntegrityException) {
+				updateTableView();
+			}
+			Alerts.showAlert("Error removing department", null, throwable.getMessage(), AlertType.ERROR);
+		});
 	}
 
 	@Override
-	public void onDataChanged() {
-		updateTableView();
+	public void onEntityChanged(EntityChangeEvent<Department> event) {
+		Platform.runLater(() -> applyChange(event));
+	}
+
+	// only the affected row changes instead of reloading the whole table
+	private void applyChange(EntityChangeEvent<Department> event) {
+		if (observableListDepartment == null || event.getType() == EntityChangeEvent.Type.RELOADED) {
+			updateTableView();
+			return;
+		}
+		int index = indexOfId(event.getId());
+		switch (event.getType()) {
+		case INSERTED:
+			insertSorted(new DepartmentSummary(event.getEntity(), 0));
+			break;
+		case UPDATED:
+			// renaming a department does not move its sellers, the count is carried over
+			long sellerCount = index >= 0 ? observableListDepartment.get(index).getSellerCount() : 0;
+			DepartmentSummary summary = new DepartmentSummary(event.getEntity(), sellerCount);
+			if (index >= 0 && DEPARTMENT_ORDER.compare(observableListDepartment.get(index), summary) == 0) {
+				observableListDepartment.set(index, summary);
+			} else {
+				if (index >= 0) {
+					observableListDepartment.remove(index);
+				}
+				insertSorted(summary);
+			}
+			break;
+		case DELETED:
+			if (index >= 0) {
+				observableListDepartment.remove(index);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	// a seller event carries its department, so the count is adjusted in place; only a change that does not say
+	// where the seller was (a bulk write, another client's update or delete) needs the counts read again
+	private void applySellerChange(EntityChangeEvent<Seller> event) {
+		if (observableListDepartment == null || countsStale) {
+			return;
+		}
+		if (tableViewDepartment.getScene() == null) {
+			countsStale = true;
+			recountDelay.stop();
+			return;
+		}
+		// the list being loaded may have been counted before this change committed
+		if (loading) {
+			recountDelay.play();
+			return;
+		}
+		Seller seller = event.getEntity();
+		Seller previous = event.getPrevious();
+		switch (event.getType()) {
+		case INSERTED:
+			if (seller != null) {
+				adjustSellerCount(departmentIdOf(seller), 1);
+				return;
+			}
+			break;
+		case DELETED:
+			if (seller != null) {
+				adjustSellerCount(departmentIdOf(seller), -1);
+				return;
+			}
+			break;
+		case UPDATED:
+			if (seller != null && previous != null) {
+				// only a move to another department changes any count
+				if (!Objects.equals(departmentIdOf(previous), departmentIdOf(seller))) {
+					adjustSellerCount(departmentIdOf(previous), -1);
+					adjustSellerCount(departmentIdOf(seller), 1);
+				}
+				return;
+			}
+			break;
+		default:
+			break;
+		}
+		recountDelay.play();
+	}
+
+	private void adjustSellerCount(Integer departmentId, long delta) {
+		int index = departmentId == null ? -1 : indexOfId(departmentId);
+		if (index < 0) {
+			// a department this list has not loaded yet, the reload brings it with its count
+			recountDelay.play();
+			return;
+		}
+		DepartmentSummary summary = observableListDepartment.get(index);
+		observableListDepartment.set(index,
+				new DepartmentSummary(summary.getDepartment(), Math.max(summary.getSellerCount() + delta, 0)));
+	}
+
+	private static Integer departmentIdOf(Seller seller) {
+		return seller.getDepartment() == null ? null : seller.getDepartment().getId();
+	}
+
+	private void insertSorted(DepartmentSummary summary) {
+		int position = Collections.binarySearch(observableListDepartment, summary, DEPARTMENT_ORDER);
+		observableListDepartment.add(position < 0 ? -position - 1 : position, summary);
+	}
+
+	private int indexOfId(Integer id) {
+		for (int i = 0; i < observableListDepartment.size(); i++) {
+			if (observableListDepartment.get(i).getId().equals(id)) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	public void setDepartmentService(DepartmentService departmentService) {
 		this.departmentService = departmentService;
+		departmentService.subscribe(this);
+	}
+
+	public void setSellerService(SellerService sellerService) {
+		sellerService.subscribe(sellerListener);
 	}
 
 }
@@ -0,0 +1,117 @@
+package gui;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+
+import db.DB;
+import db.QueryMetrics;
+import db.QueryStats;
+import db.ReplicaRouter;
+import gui.util.Utils;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+
+public class DiagnosticsController implements Initializable {
+
+	@FXML
+	private TableView<QueryStats> tableViewStatistics;
+
+	@FXML
+	private TableColumn<QueryStats, String> tableColumnName;
+
+	@FXML
+	private TableColumn<QueryStats, Long> tableColumnCalls;
+
+	@FXML
+	private TableColumn<QueryStats, Long> tableColumnErrors;
+
+	@FXML
+	private TableColumn<QueryStats, Long> tableColumnRows;
+
+	@FXML
+	private TableColumn<QueryStats, Double> tableColumnMean;
+
+	@FXML
+	private TableColumn<QueryStats, Double> tableColumnP50;
+
+	@FXML
+	private TableColumn<QueryStats, Double> tableColumnP95;
+
+	@FXML
+	private TableColumn<QueryStats, Double> tableColumnP99;
+
+	@FXML
+	private TableColumn<QueryStats, Double> tableColumnMax;
+
+	@FXML
+	private ListView<String> listViewSlowQueries;
+
+	@FXML
+	private Label labelStatus;
+
+	@FXML
+	private Label labelPool;
+
+	@FXML
+	private Button btRefresh;
+
+	@FXML
+	private Button btReset;
+
+	@FXML
+	public void onBtRefreshAction(ActionEvent actionEvent) {
+		updateView();
+	}
+
+	@FXML
+	public void onBtResetAction(ActionEvent actionEvent) {
+		QueryMetrics.reset();
+		updateView();
+	}
+
+	@Override
+	public void initialize(URL url, ResourceBundle resourceBundle) {
+		initializeNodes();
+	}
+
+	private void initializeNodes() {
+		tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
+		tableColumnCalls.setCellValueFactory(new PropertyValueFactory<>("calls"));
+		tableColumnErrors.setCellValueFactory(new PropertyValueFactory<>("errors"));
+		tableColumnRows.setCellValueFactory(new PropertyValueFactory<>("rows"));
+		tableColumnMean.setCellValueFactory(new PropertyValueFactory<>("meanMillis"));
+		Utils.formatTableColumnDouble(tableColumnMean, 3);
+		tableColumnP50.setCellValueFactory(new PropertyValueFactory<>("p50Millis"));
+		Utils.formatTableColumnDouble(tableColumnP50, 3);
+		tableColumnP95.setCellValueFactory(new PropertyValueFactory<>("p95Millis"));
+		Utils.formatTableColumnDouble(tableColumnP95, 3);
+		tableColumnP99.setCellValueFactory(new PropertyValueFactory<>("p99Millis"));
+		Utils.formatTableColumnDouble(tableColumnP99, 3);
+		tableColumnMax.setCellValueFactory(new PropertyValueFactory<>("maxMillis"));
+		Utils.formatTableColumnDouble(tableColumnMax, 3);
+	}
+
+	// the counters are live objects, a refresh re-reads them
+	public void updateView() {
+		if (QueryMetrics.isEnabled()) {
+			labelStatus.setText("Slow query threshold: " + QueryMetrics.getSlowQueryMillis() + " ms");
+		} else {
+			labelStatus.setText("Instrumentation is off, set metrics.enabled=true in db.properties");
+		}
+		ReplicaRouter replicaRouter = DB.getReplicaRouter();
+		labelPool.setText(DB.getConnectionPool()
+				+ (replicaRouter.hasReplicas() ? System.lineSeparator() + replicaRouter : ""));
+		tableViewStatistics.setItems(FXCollections.observableArrayList(QueryMetrics.getStatistics()));
+		tableViewStatistics.refresh();
+		listViewSlowQueries.setItems(FXCollections.observableArrayList(QueryMetrics.getSlowQueries()));
+	}
+
+}
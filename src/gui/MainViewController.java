@@ -1,75 +1,225 @@
 package gui;
 
-import java.io.IOException;
+import java.io.File;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import application.Main;
 import gui.util.Alerts;
+import gui.util.ProgressDialog;
+import gui.util.Utils;
+import gui.util.ViewRegistry;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+import model.exceptions.ValidationException;
 import model.services.DepartmentService;
+import model.services.ImportResult;
+import model.services.SalaryReportService;
+import model.services.SellerExportService;
+import model.services.SellerImportService;
 import model.services.SellerService;
 
 public class MainViewController implements Initializable {
 
+	private static final String SELLER_LIST = "/gui/SellerList.fxml";
+	private static final String DEPARTMENT_LIST = "/gui/DepartmentList.fxml";
+	private static final String SALARY_REPORT = "/gui/SalaryReport.fxml";
+
+	private final ViewRegistry viewRegistry = new ViewRegistry();
+	private final SellerService sellerService = new SellerService();
+	private final DepartmentService departmentService = new DepartmentService();
+	private String currentView;
+
 	@FXML
 	private MenuItem menuItemSeller;
 
 	@FXML
 	private MenuItem menuItemDepartment;
 
+	@FXML
+	private MenuItem menuItemImportSellers;
+
+	@FXML
+	private MenuItem menuItemExportSellers;
+
+	@FXML
+	private MenuItem menuItemDiagnostics;
+
+	@FXML
+	private MenuItem menuItemSalaryReport;
+
 	@FXML
 	private MenuItem menuItemHelp;
 
 	@FXML
 	public void onMenuItemSellerAction() {
-		loadView("/gui/SellerList.fxml", (SellerListController sellerListController) -> {
-			sellerListController.setSellerService(new SellerService());
-			sellerListController.updateTableView();
-		});
+		loadView(SELLER_LIST, this::initializeSellerList);
 	}
 
 	@FXML
 	public void onMenuItemDepartmentAction() {
-		loadView("/gui/DepartmentList.fxml", (DepartmentListController departmentListController) -> {
-			departmentListController.setDepartmentService(new DepartmentService());
-			departmentListController.updateTableView();
+		loadView(DEPARTMENT_LIST, this::initializeDepartmentList);
+	}
+
+	@FXML
+	public void onMenuItemSalaryReportAction() {
+		loadView(SALARY_REPORT, this::initializeSalaryReport);
+	}
+
+	@FXML
+	public void onMenuItemImportSellersAction() {
+		Window owner = Main.getMainScene().getWindow();
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Import Sellers");
+		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+		File file = fileChooser.showOpenDialog(owner);
+		if (file == null) {
+			return;
+		}
+
+		Path source = file.toPath();
+		Path rejectFile = source.resolveSibling(file.getName().replaceFirst("\\.csv$", "") + ".rejects.csv");
+		ProgressDialog progressDialog = new ProgressDialog("Import Sellers", owner);
+		progressDialog.setMessage("Importing " + file.getName());
+
+		SellerImportService importService = new SellerImportService();
+		CompletableFuture<ImportResult> importing = importService.importCsvAsync(source, rejectFile,
+				(done, total) -> Platform.runLater(() -> progressDialog.setProgress(done, total)));
+		progressDialog.setOnCancel(() -> {
+			importing.cancel(false);
+			progressDialog.close();
+		});
+		progressDialog.show();
+
+		Utils.onFxThread(importing, result -> {
+			progressDialog.close();
+			String content = result.getImported() + " sellers imported in " + result.getElapsedMillis() + " ms.";
+			if (result.getRejectFile() != null) {
+				content += "\n" + result.getRejected() + " rows rejected, see " + result.getRejectFile();
+			}
+			Alerts.showAlert("Import Sellers", null, content, AlertType.INFORMATION);
+		}, throwable -> {
+			progressDialog.close();
+			String content = throwable instanceof ValidationException
+					? throwable.getMessage() + ": " + ((ValidationException) throwable).getErrors()
+					: throwable.getMessage();
+			Alerts.showAlert("Error importing sellers", null, content, AlertType.ERROR);
 		});
 	}
 
+	@FXML
+	public void onMenuItemExportSellersAction() {
+		Window owner = Main.getMainScene().getWindow();
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Export Sellers");
+		fileChooser.setInitialFileName("sellers.csv");
+		fileChooser.getExtensionFilters().addAll(
+				new FileChooser.ExtensionFilter("CSV files", "*.csv"),
+				new FileChooser.ExtensionFilter("Compressed CSV files", "*.csv.gz"),
+				new FileChooser.ExtensionFilter("JSON files", "*.json"),
+				new FileChooser.ExtensionFilter("Compressed JSON files", "*.json.gz"));
+		File file = fileChooser.showSaveDialog(owner);
+		if (file == null) {
+			return;
+		}
+
+		Path target = file.toPath();
+		ProgressDialog progressDialog = new ProgressDialog("Export Sellers", owner);
+		progressDialog.setMessage("Exporting to " + file.getName());
+
+		SellerExportService exportService = new SellerExportService();
+		CompletableFuture<Long> export = exportService.exportAsync(target, SellerExportService.formatOf(target),
+				SellerExportService.isGzip(target),
+				(done, total) -> Platform.runLater(() -> progressDialog.setProgress(done, total)));
+		progressDialog.setOnCancel(() -> {
+			export.cancel(false);
+			progressDialog.close();
+		});
+		progressDialog.show();
+
+		Utils.onFxThread(export, written -> {
+			progressDialog.close();
+			Alerts.showAlert("Export Sellers", null, written + " sellers exported to " + target, AlertType.INFORMATION);
+		}, throwable -> {
+			progressDialog.close();
+			Alerts.showAlert("Error exporting sellers", null, throwable.getMessage(), AlertType.ERROR);
+		});
+	}
+
+	@FXML
+	public void onMenuItemDiagnosticsAction() {
+		// the view itself is cached, but the metrics are a snapshot, so they are re-read every time it is shown
+		loadView("/gui/Diagnostics.fxml", x -> {
+		}, DiagnosticsController::updateView);
+	}
+
 	@FXML
 	public void onMenuItemHelpAction() {
 		loadView("/gui/About.fxml", x -> {
 		});
 	}
 
-	private synchronized <T> void loadView(String absoluteName, Consumer<T> initializingAction) {
-		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-			VBox newVBox = loader.load();
+	// called once the main window is up; each list view is then built on the FX thread between user events
+	public void preloadViews() {
+		viewRegistry.preload(SELLER_LIST, this::initializeSellerList);
+		viewRegistry.preload(DEPARTMENT_LIST, this::initializeDepartmentList);
+		viewRegistry.preload(SALARY_REPORT, this::initializeSalaryReport);
+	}
+
+	// cached controllers stay subscribed to the change events, so they are only initialized once
+	private void initializeSellerList(SellerListController sellerListController) {
+		sellerListController.setSellerService(sellerService);
+		sellerListController.setDepartmentService(departmentService);
+		sellerListController.updateTableView();
+		sellerListController.prepareDialogs();
+	}
 
-			Scene mainScene = Main.getMainScene();
-			VBox mainVBox = (VBox) ((ScrollPane) mainScene.getRoot()).getContent();
+	private void initializeDepartmentList(DepartmentListController departmentListController) {
+		departmentListController.setDepartmentService(departmentService);
+		departmentListController.setSellerService(sellerService);
+		departmentListController.updateTableView();
+		departmentListController.prepareDialogs();
+	}
+
+	private void initializeSalaryReport(SalaryReportController salaryReportController) {
+		salaryReportController.setSalaryReportService(new SalaryReportService());
+		salaryReportController.setSellerService(sellerService);
+		salaryReportController.setDepartmentService(departmentService);
+		salaryReportController.updateTableView();
+	}
 
+	private <T> void loadView(String absoluteName, Consumer<T> initializingAction) {
+		loadView(absoluteName, initializingAction, x -> {
+		});
+	}
+
+	private <T> void loadView(String absoluteName, Consumer<T> initializingAction, Consumer<T> showingAction) {
+		currentView = absoluteName;
+		Utils.onFxThread(viewRegistry.get(absoluteName, initializingAction), view -> {
+			// a slower preload finishing after the user already moved on must not take over the window
+			if (!absoluteName.equals(currentView)) {
+				return;
+			}
+			VBox mainVBox = (VBox) ((ScrollPane) Main.getMainScene().getRoot()).getContent();
 			Node mainMenu = mainVBox.getChildren().get(0);
-			mainVBox.getChildren().clear();
-			mainVBox.getChildren().add(mainMenu);
-			mainVBox.getChildren().addAll(newVBox.getChildren());
-
-			T controller = loader.getController();
-			initializingAction.accept(controller);
-		} catch (IOException exception) {
-			Alerts.showAlert("IO Exception", "Error loading view", exception.getMessage(), AlertType.ERROR);
-		}
+			mainVBox.getChildren().setAll(mainMenu);
+			mainVBox.getChildren().addAll(view.getNodes());
+			showingAction.accept(view.getController());
+		}, throwable -> {
+			viewRegistry.evict(absoluteName);
+			Alerts.showAlert("IO Exception", "Error loading view", throwable.getMessage(), AlertType.ERROR);
+		});
 	}
 
 	@Override
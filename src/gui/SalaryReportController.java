@@ -0,0 +1,119 @@
+package gui;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+
+import application.Main;
+import gui.util.Alerts;
+import gui.util.Utils;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+import model.dao.SalaryStatistics;
+import model.entities.Department;
+import model.entities.Seller;
+import model.services.DepartmentService;
+import model.services.EntityChangeListener;
+import model.services.SalaryReportService;
+import model.services.SellerService;
+
+public class SalaryReportController implements Initializable {
+
+	private SalaryReportService salaryReportService;
+
+	// kept in fields because the services only hold their listeners weakly
+	private final EntityChangeListener<Seller> sellerListener = event -> Platform.runLater(this::updateTableView);
+	private final EntityChangeListener<Department> departmentListener = event -> Platform
+			.runLater(this::updateTableView);
+
+	@FXML
+	private TableView<SalaryStatistics> tableViewSalary;
+
+	@FXML
+	private TableColumn<SalaryStatistics, String> tableColumnDepartment;
+
+	@FXML
+	private TableColumn<SalaryStatistics, Long> tableColumnHeadcount;
+
+	@FXML
+	private TableColumn<SalaryStatistics, Double> tableColumnTotal;
+
+	@FXML
+	private TableColumn<SalaryStatistics, Double> tableColumnAverage;
+
+	@FXML
+	private TableColumn<SalaryStatistics, Double> tableColumnMin;
+
+	@FXML
+	private TableColumn<SalaryStatistics, Double> tableColumnMax;
+
+	@FXML
+	private Button btRefresh;
+
+	@FXML
+	private ProgressIndicator progressIndicator;
+
+	@FXML
+	public void onBtRefreshAction(ActionEvent actionEvent) {
+		SalaryReportService.invalidate();
+		updateTableView();
+	}
+
+	@Override
+	public void initialize(URL url, ResourceBundle resourceBundle) {
+		initializeNodes();
+	}
+
+	private void initializeNodes() {
+		tableColumnDepartment.setCellValueFactory(new PropertyValueFactory<>("departmentName"));
+		tableColumnHeadcount.setCellValueFactory(new PropertyValueFactory<>("headcount"));
+		tableColumnTotal.setCellValueFactory(new PropertyValueFactory<>("total"));
+		Utils.formatTableColumnDouble(tableColumnTotal, 2);
+		tableColumnAverage.setCellValueFactory(new PropertyValueFactory<>("average"));
+		Utils.formatTableColumnDouble(tableColumnAverage, 2);
+		tableColumnMin.setCellValueFactory(new PropertyValueFactory<>("min"));
+		Utils.formatTableColumnDouble(tableColumnMin, 2);
+		tableColumnMax.setCellValueFactory(new PropertyValueFactory<>("max"));
+		Utils.formatTableColumnDouble(tableColumnMax, 2);
+
+		Stage stage = (Stage) Main.getMainScene().getWindow();
+		tableViewSalary.prefHeightProperty().bind(stage.heightProperty());
+	}
+
+	// served from the service cache unless a seller or department was written since the last query
+	public void updateTableView() {
+		if (salaryReportService == null) {
+			throw new IllegalStateException("salaryReportService was null");
+		}
+		progressIndicator.setVisible(true);
+		Utils.onFxThread(salaryReportService.salaryByDepartmentAsync(), statistics -> {
+			progressIndicator.setVisible(false);
+			tableViewSalary.setItems(FXCollections.observableArrayList(statistics));
+		}, throwable -> {
+			progressIndicator.setVisible(false);
+			Alerts.showAlert("Error loading salary report", null, throwable.getMessage(), AlertType.ERROR);
+		});
+	}
+
+	public void setSalaryReportService(SalaryReportService salaryReportService) {
+		this.salaryReportService = salaryReportService;
+	}
+
+	public void setSellerService(SellerService sellerService) {
+		sellerService.subscribe(sellerListener);
+	}
+
+	public void setDepartmentService(DepartmentService departmentService) {
+		departmentService.subscribe(departmentListener);
+	}
+
+}
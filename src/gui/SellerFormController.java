@@ -4,32 +4,34 @@ import java.net.URL;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-import db.DbException;
-import gui.listeners.DataChangeListener;
+import db.DbConcurrencyException;
 import gui.util.Alerts;
 import gui.util.Constraints;
+import gui.util.DepartmentChoices;
+import gui.util.Formatters;
 import gui.util.Utils;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import javafx.util.Callback;
 import model.entities.Department;
 import model.entities.Seller;
@@ -42,7 +44,9 @@ public class SellerFormController implements Initializable {
 	private SellerService sellerService;
 	private DepartmentService departmentService;
 	private Seller seller;
-	private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+	private CompletableFuture<Void> pendingSave;
+	// the dialog is reused, so replies meant for a seller bound earlier are dropped
+	private int binding;
 
 	@FXML
 	private TextField txtId;
@@ -61,7 +65,6 @@ public class SellerFormController implements Initializable {
 
 	@FXML
 	private ComboBox<Department> comboBoxDepartment;
-	private ObservableList<Department> observableListDepartment;
 
 	@FXML
 	private Label labelErrorName;
@@ -81,6 +84,9 @@ public class SellerFormController implements Initializable {
 	@FXML
 	private Button btCancel;
 
+	@FXML
+	private ProgressIndicator progressIndicator;
+
 	@FXML
 	private void onBtSaveAction(ActionEvent actionEvent) {
 		if (seller == null) {
@@ -91,18 +97,81 @@ public class SellerFormController implements Initializable {
 		}
 		try {
 			seller = getFormData();
-			sellerService.saveOrUpdate(seller);
-			notifyDataChangeListeners();
-			Utils.currentStage(actionEvent).close();
+			save(seller, Utils.currentStage(actionEvent));
 		} catch (ValidationException exception) {
 			setErrorMessages(exception.getErrors());
-		} catch (DbException exception) {
-			Alerts.showAlert("Error saving Seller", null, exception.getMessage(), AlertType.ERROR);
 		}
 	}
 
-	private void notifyDataChangeListeners() {
-		dataChangeListeners.forEach(x -> x.onDataChanged());
+	private void save(Seller seller, Stage stage) {
+		// the service publishes the change, so a write that completes after cancel still reaches the list
+		int binding = this.binding;
+		pendingSave = sellerService.saveOrUpdateAsync(seller);
+		setSaving(true);
+
+		Utils.onFxThread(pendingSave, result -> {
+			if (binding != this.binding) {
+				return;
+			}
+			setSaving(false);
+			stage.close();
+		}, throwable -> {
+			if (binding != this.binding) {
+				return;
+			}
+			setSaving(false);
+			if (throwable instanceof DbConcurrencyException) {
+				resolveConflict(seller, stage);
+			} else {
+				Alerts.showAlert("Error saving Seller", null, throwable.getMessage(), AlertType.ERROR);
+			}
+		});
+	}
+
+	// someone else changed the seller after this form was opened
+	private void resolveConflict(Seller mine, Stage stage) {
+		ButtonType reload = new ButtonType("Reload");
+		ButtonType overwrite = new ButtonType("Keep my changes");
+		Optional<ButtonType> result = Alerts.showConfirmation("Seller changed",
+				"This seller was changed by another user since you opened it. Reload the current data "
+						+ "or save your changes over it?",
+				reload, overwrite, ButtonType.CANCEL);
+		if (!result.isPresent() || result.get() == ButtonType.CANCEL) {
+			return;
+		}
+
+		int binding = this.binding;
+		setSaving(true);
+		Utils.onFxThread(sellerService.findByIdAsync(mine.getId()), current -> {
+			if (binding != this.binding) {
+				return;
+			}
+			setSaving(false);
+			if (current == null) {
+				Alerts.showAlert("Seller removed", null, "This seller was removed by another user.", AlertType.ERROR);
+				stage.close();
+			} else if (result.get() == reload) {
+				setSeller(current);
+				updateFormData();
+			} else {
+				mine.setVersion(current.getVersion());
+				save(mine, stage);
+			}
+		}, throwable -> {
+			if (binding != this.binding) {
+				return;
+			}
+			setSaving(false);
+			Alerts.showAlert("Error loading Seller", null, throwable.getMessage(), AlertType.ERROR);
+		});
+	}
+
+	private void setSaving(boolean saving) {
+		btSave.setDisable(saving);
+		progressIndicator.setVisible(saving);
+		if (!saving) {
+			pendingSave = null;
+		}
 	}
 
 	private Seller getFormData() {
@@ -110,6 +179,7 @@ public class SellerFormController implements Initializable {
 		ValidationException validationException = new ValidationException("Validation error");
 
 		seller.setId(Utils.tryParseToInt(txtId.getText()));
+		seller.setVersion(this.seller.getVersion());
 
 		if (txtName.getText() == null || txtName.getText().trim().equals("")) {
 			validationException.addError("name", "Field can't be empty");
@@ -153,6 +223,10 @@ public class SellerFormController implements Initializable {
 
 	@FXML
 	private void onBtCancelAction(ActionEvent actionEvent) {
+		if (pendingSave != null) {
+			pendingSave.cancel(true);
+			setSaving(false);
+		}
 		Utils.currentStage(actionEvent).close();
 	}
 
@@ -177,26 +251,24 @@ public class SellerFormController implements Initializable {
 		this.txtId.setText(String.valueOf(seller.getId()));
 		this.txtName.setText(seller.getName());
 		this.txtEmail.setText(seller.getEmail());
-		Locale.setDefault(Locale.US);
-		this.txtBaseSalary.setText(String.format("%.2f", seller.getBaseSalary()));
-		if (seller.getBirthDate() != null) {
-			dpBirthDate.setValue(LocalDate.ofInstant(seller.getBirthDate().toInstant(), ZoneId.systemDefault()));
-		}
+		this.txtBaseSalary.setText(Formatters.formatDecimal(seller.getBaseSalary(), 2));
+		dpBirthDate.setValue(seller.getBirthDate() == null ? null
+				: LocalDate.ofInstant(seller.getBirthDate().toInstant(), ZoneId.systemDefault()));
 
 		if (seller.getDepartment() == null) {
 			comboBoxDepartment.getSelectionModel().selectFirst();
 		} else {
 			comboBoxDepartment.setValue(seller.getDepartment());
 		}
+		setErrorMessages(Collections.emptyMap());
+		setSaving(false);
 	}
 
 	public void loadAssociatedObjects() {
 		if (departmentService == null) {
 			throw new IllegalStateException("departmentService was null");
 		}
-		List<Department> departments = departmentService.findAll();
-		observableListDepartment = FXCollections.observableArrayList(departments);
-		comboBoxDepartment.setItems(observableListDepartment);
+		comboBoxDepartment.setItems(DepartmentChoices.get(departmentService));
 	}
 
 	private void initializeComboBoxDepartment() {
@@ -218,10 +290,7 @@ public class SellerFormController implements Initializable {
 
 	public void setSeller(Seller seller) {
 		this.seller = seller;
-	}
-
-	public void subscribeDataChangeListener(DataChangeListener dataChangeListener) {
-		dataChangeListeners.add(dataChangeListener);
+		binding++;
 	}
 
 }
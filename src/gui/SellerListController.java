@@ -2,45 +2,77 @@ package gui;
 
 import java.io.IOException;
 import java.net.URL;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 import application.Main;
-import db.DbIntegrityException;
-import gui.listeners.DataChangeListener;
+import db.DB;
 import gui.util.Alerts;
+import gui.util.Constraints;
+import gui.util.DialogPool;
+import gui.util.LazyPagedList;
 import gui.util.Utils;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Callback;
+import javafx.util.Duration;
+import model.dao.Page;
+import model.dao.SellerCursor;
+import model.dao.SellerSearchCriteria;
+import model.entities.Department;
 import model.entities.Seller;
 import model.services.DepartmentService;
+import model.services.EntityChangeEvent;
+import model.services.EntityChangeListener;
 import model.services.SellerService;
 
-public class SellerListController implements Initializable, DataChangeListener {
+public class SellerListController implements Initializable, EntityChangeListener<Seller> {
+
+	// same order as the (Name, Id) keyset used by the queries
+	private static final Comparator<Seller> SELLER_ORDER = Comparator
+			.comparing(Seller::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(Seller::getId);
 
 	private SellerService sellerService;
+	private DepartmentService departmentService;
+	private final DialogPool<SellerFormController> formPool = new DialogPool<>("/gui/SellerForm.fxml",
+			"Seller Registration", sellerFormController -> {
+				sellerFormController.setServices(sellerService, departmentService);
+				sellerFormController.loadAssociatedObjects();
+			});
+	private SellerSearchCriteria searchCriteria = new SellerSearchCriteria();
+	private PauseTransition searchDelay = new PauseTransition(Duration.millis(300));
+	private CompletableFuture<Long> pendingLoad;
 
 	@FXML
 	private TableView<Seller> tableViewSeller;
-	private ObservableList<Seller> observableListSeller;
+	private LazyPagedList<Seller> lazyListSeller;
 
 	@FXML
 	private TableColumn<Seller, Integer> tableColumnId;
@@ -66,11 +98,61 @@ public class SellerListController implements Initializable, DataChangeListener {
 	@FXML
 	private Button btNew;
 
+	@FXML
+	private Button btCancelLoad;
+
+	@FXML
+	private ProgressIndicator progressIndicator;
+
+	@FXML
+	private TextField txtSearchName;
+
+	@FXML
+	private TextField txtSearchEmail;
+
+	@FXML
+	private ComboBox<Department> comboBoxSearchDepartment;
+
+	@FXML
+	private TextField txtSearchMinSalary;
+
+	@FXML
+	private TextField txtSearchMaxSalary;
+
+	@FXML
+	private DatePicker dpSearchBirthDateFrom;
+
+	@FXML
+	private DatePicker dpSearchBirthDateTo;
+
+	@FXML
+	private Button btClearSearch;
+
 	@FXML
 	public void onBtNewAction(ActionEvent actionEvent) {
 		Stage parentStage = Utils.currentStage(actionEvent);
 		Seller seller = new Seller();
-		createDialogForm(seller, "/gui/SellerForm.fxml", parentStage);
+		createDialogForm(seller, parentStage);
+	}
+
+	@FXML
+	public void onBtCancelLoadAction() {
+		if (pendingLoad != null) {
+			pendingLoad.cancel(true);
+			pendingLoad = null;
+		}
+		showProgress(false);
+	}
+
+	@FXML
+	public void onBtClearSearchAction() {
+		txtSearchName.clear();
+		txtSearchEmail.clear();
+		comboBoxSearchDepartment.setValue(null);
+		txtSearchMinSalary.clear();
+		txtSearchMaxSalary.clear();
+		dpSearchBirthDateFrom.setValue(null);
+		dpSearchBirthDateTo.setValue(null);
 	}
 
 	@Override
@@ -86,48 +168,139 @@ public class SellerListController implements Initializable, DataChangeListener {
 		Utils.formatTableColumnDate(tableColumnBirthDate, "dd/MM/yyyy");
 		this.tableColumnBaseSalary.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
 		Utils.formatTableColumnDouble(tableColumnBaseSalary, 2);
+		initEditButtons();
+		initRemoveButtons();
 
 		// tamanho do TableView = tamanho da janela/stage
 		Stage stage = (Stage) Main.getMainScene().getWindow();
 		tableViewSeller.prefHeightProperty().bind(stage.heightProperty());
+
+		initializeSearch();
+
+		// the table only keeps the visible pages, each row is fetched when its cell shows up
+		lazyListSeller = new LazyPagedList<>(DB.getIntProperty("list.pageSize", 100),
+				DB.getIntProperty("list.maxPages", 50), this::loadPage);
+		lazyListSeller.setOnLoadFailed(
+				throwable -> Alerts.showAlert("Error loading sellers", null, throwable.getMessage(), AlertType.ERROR));
+		tableViewSeller.setItems(lazyListSeller);
+		// a fixed cell height avoids measuring every row to size the scroll bar over millions of items
+		tableViewSeller.setFixedCellSize(25.0);
+	}
+
+	private void initializeSearch() {
+		Constraints.setTextFieldDouble(txtSearchMinSalary);
+		Constraints.setTextFieldDouble(txtSearchMaxSalary);
+		Utils.formatDatePicker(dpSearchBirthDateFrom, "dd/MM/yyyy");
+		Utils.formatDatePicker(dpSearchBirthDateTo, "dd/MM/yyyy");
+
+		Callback<ListView<Department>, ListCell<Department>> factory = lv -> new ListCell<Department>() {
+			@Override
+			protected void updateItem(Department item, boolean empty) {
+				super.updateItem(item, empty);
+				setText(empty || item == null ? "All departments" : item.getName());
+			}
+		};
+		comboBoxSearchDepartment.setCellFactory(factory);
+		comboBoxSearchDepartment.setButtonCell(factory.call(null));
+
+		// waits for the user to stop typing before querying the database
+		searchDelay.setOnFinished(event -> updateTableView());
+		ChangeListener<Object> searchChanged = (obs, oldValue, newValue) -> searchDelay.playFromStart();
+		txtSearchName.textProperty().addListener(searchChanged);
+		txtSearchEmail.textProperty().addListener(searchChanged);
+		comboBoxSearchDepartment.valueProperty().addListener(searchChanged);
+		txtSearchMinSalary.textProperty().addListener(searchChanged);
+		txtSearchMaxSalary.textProperty().addListener(searchChanged);
+		dpSearchBirthDateFrom.valueProperty().addListener(searchChanged);
+		dpSearchBirthDateTo.valueProperty().addListener(searchChanged);
+	}
+
+	private SellerSearchCriteria getSearchCriteria() {
+		SellerSearchCriteria criteria = new SellerSearchCriteria();
+		criteria.setNamePrefix(trimToNull(txtSearchName.getText()));
+		criteria.setEmailPrefix(trimToNull(txtSearchEmail.getText()));
+		if (comboBoxSearchDepartment.getValue() != null) {
+			criteria.setDepartmentId(comboBoxSearchDepartment.getValue().getId());
+		}
+		criteria.setMinBaseSalary(Utils.tryParseToDouble(txtSearchMinSalary.getText()));
+		criteria.setMaxBaseSalary(Utils.tryParseToDouble(txtSearchMaxSalary.getText()));
+		criteria.setBirthDateFrom(toDate(dpSearchBirthDateFrom.getValue()));
+		criteria.setBirthDateTo(toDate(dpSearchBirthDateTo.getValue()));
+		return criteria;
+	}
+
+	private static String trimToNull(String value) {
+		return value == null || value.trim().isEmpty() ? null : value.trim();
+	}
+
+	private static Date toDate(LocalDate localDate) {
+		return localDate == null ? null : Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
 	}
 
 	public void updateTableView() {
 		if (sellerService == null) {
 			throw new IllegalStateException("sellerService was null");
 		}
-		List<Seller> sellers = sellerService.findAll();
-		observableListSeller = FXCollections.observableArrayList(sellers);
-		tableViewSeller.setItems(observableListSeller);
-		initEditButtons();
-		initRemoveButtons();
+		searchDelay.stop();
+		searchCriteria = getSearchCriteria();
+		reloadCount(true);
+	}
+
+	// counts the rows of the current filter; pages are loaded afterwards, as the table scrolls
+	private void reloadCount(boolean scrollToTop) {
+		onBtCancelLoadAction();
+		CompletableFuture<Long> load = sellerService.countAsync(searchCriteria);
+		pendingLoad = load;
+		showProgress(true);
+		Utils.onFxThread(load, count -> {
+			finishLoad(load);
+			lazyListSeller.reset((int) Math.min(count, Integer.MAX_VALUE));
+			if (scrollToTop) {
+				tableViewSeller.scrollTo(0);
+			}
+		}, throwable -> {
+			finishLoad(load);
+			Alerts.showAlert("Error loading sellers", null, throwable.getMessage(), AlertType.ERROR);
+		});
+	}
+
+	// continues from the previous page by keyset when it is in memory, otherwise uses OFFSET
+	private CompletableFuture<List<Seller>> loadPage(int offset, int limit, Seller previous) {
+		if (previous != null) {
+			return sellerService.searchAsync(searchCriteria, SellerCursor.after(previous), limit)
+					.thenApply(Page::getItems);
+		}
+		return sellerService.searchAsync(searchCriteria, offset, limit);
+	}
+
+	private void finishLoad(CompletableFuture<Long> load) {
+		if (pendingLoad == load) {
+			pendingLoad = null;
+		}
+		showProgress(false);
 	}
 
-	private void createDialogForm(Seller seller, String absoluteName, Stage parentStage) {
+	private void showProgress(boolean visible) {
+		progressIndicator.setVisible(visible);
+		btCancelLoad.setVisible(visible);
+	}
+
+	private void createDialogForm(Seller seller, Stage parentStage) {
 		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-			Pane pane = loader.load();
-
-			SellerFormController sellerFormController = loader.getController();
-			sellerFormController.setServices(new SellerService(), new DepartmentService());
-			sellerFormController.loadAssociatedObjects();
-			sellerFormController.setSeller(seller);
-			sellerFormController.subscribeDataChangeListener(this);
-			sellerFormController.updateFormData();
-
-			Stage dialogStage = new Stage();
-			dialogStage.setScene(new Scene(pane));
-			dialogStage.setTitle("Seller Registration");
-			dialogStage.setResizable(false);
-			dialogStage.initOwner(parentStage);
-			dialogStage.initModality(Modality.WINDOW_MODAL);
-			dialogStage.showAndWait();
+			formPool.open(parentStage, sellerFormController -> {
+				sellerFormController.setSeller(seller);
+				sellerFormController.updateFormData();
+			});
 		} catch (IOException exception) {
 			exception.printStackTrace();
 			Alerts.showAlert("IO Exception", "Error loading view", exception.getMessage(), AlertType.ERROR);
 		}
 	}
 
+	public void prepareDialogs() {
+		formPool.prepareQuietly(Main.getMainScene().getWindow());
+	}
+
 	private void initEditButtons() {
 		tableColumnEDIT.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
 		tableColumnEDIT.setCellFactory(param -> new TableCell<Seller, Seller>() {
@@ -141,7 +314,7 @@ public class SellerListController implements Initializable, DataChangeListener {
 					return;
 				}
 				setGraphic(button);
-				button.setOnAction(event -> createDialogForm(obj, "/gui/SellerForm.fxml", Utils.currentStage(event)));
+				button.setOnAction(event -> createDialogForm(obj, Utils.currentStage(event)));
 			}
 		});
 	}
@@ -171,22 +344,78 @@ public class SellerListController implements Initializable, DataChangeListener {
 			if (sellerService == null) {
 				throw new IllegalStateException("SellerService was null");
 			}
-			try {
-				sellerService.remove(seller);
-				updateTableView();
-			} catch (DbIntegrityException exception) {
-				Alerts.showAlert("Error removing seller", null, exception.getMessage(), AlertType.ERROR);
-			}
+			progressIndicator.setVisible(true);
+			Utils.onFxThread(sellerService.removeAsync(seller), removed -> progressIndicator.setVisible(false), throwable -> {
+				progressIndicator.setVisible(false);
+				Alerts.showAlert("Error removing seller", null, throwable.getMessage(), AlertType.ERROR);
+			});
 		}
 	}
 
 	public void setSellerService(SellerService sellerService) {
 		this.sellerService = sellerService;
+		sellerService.subscribe(this);
+	}
+
+	public void setDepartmentService(DepartmentService departmentService) {
+		this.departmentService = departmentService;
+		Utils.onFxThread(departmentService.findAllAsync(), departments -> {
+			ObservableList<Department> items = FXCollections.observableArrayList(departments);
+			items.add(0, null);
+			comboBoxSearchDepartment.setItems(items);
+		}, throwable -> Alerts.showAlert("Error loading departments", null, throwable.getMessage(), AlertType.ERROR));
 	}
 
 	@Override
-	public void onDataChanged() {
-		updateTableView();
+	public void onEntityChanged(EntityChangeEvent<Seller> event) {
+		Platform.runLater(() -> applyChange(event));
+	}
+
+	// the loaded pages are patched in place; only a row whose old or new place is outside them needs a recount
+	private void applyChange(EntityChangeEvent<Seller> event) {
+		if (sellerService == null) {
+			return;
+		}
+		// a count still running may have been read before this change committed
+		if (pendingLoad != null) {
+			reloadCount(false);
+			return;
+		}
+		Seller seller = event.getEntity();
+		Integer id = event.getId();
+		switch (event.getType()) {
+		case INSERTED:
+			if (searchCriteria.matches(seller) && !lazyListSeller.insertSorted(seller, SELLER_ORDER)) {
+				reloadCount(false);
+			}
+			break;
+		case UPDATED:
+			if (searchCriteria.matches(seller) && lazyListSeller
+					.replace(row -> row.getId().equals(id) && SELLER_ORDER.compare(row, seller) == 0, seller)) {
+				return;
+			}
+			// renamed, or moved in or out of the filter: out of its old place, into its new one
+			Seller previous = event.getPrevious();
+			boolean listed = previous == null || searchCriteria.matches(previous);
+			boolean removed = !listed || lazyListSeller.removeMatching(row -> row.getId().equals(id))
+					|| lazyListSeller.isFullyLoaded();
+			if (!removed || (searchCriteria.matches(seller) && !lazyListSeller.insertSorted(seller, SELLER_ORDER))) {
+				reloadCount(false);
+			}
+			break;
+		case DELETED:
+			// another client's delete comes without the row, it may be in the list or not
+			if (seller != null && !searchCriteria.matches(seller)) {
+				return;
+			}
+			if (!lazyListSeller.removeMatching(row -> row.getId().equals(id)) && !lazyListSeller.isFullyLoaded()) {
+				reloadCount(false);
+			}
+			break;
+		default:
+			reloadCount(false);
+			break;
+		}
 	}
 
 }
@@ -1,7 +0,0 @@
-package gui.listeners;
-
-public interface DataChangeListener {
-
-	void onDataChanged();
-
-}
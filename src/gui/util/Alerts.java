@@ -24,4 +24,11 @@ public class Alerts {
 		return alert.showAndWait();
 	}
 
+	public static Optional<ButtonType> showConfirmation(String title, String content, ButtonType... buttons) {
+		Alert alert = new Alert(AlertType.CONFIRMATION, content, buttons);
+		alert.setTitle(title);
+		alert.setHeaderText(null);
+		return alert.showAndWait();
+	}
+
 }
\ No newline at end of file
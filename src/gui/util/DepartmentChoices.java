@@ -0,0 +1,37 @@
+package gui.util;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.Alert.AlertType;
+import model.entities.Department;
+import model.services.DepartmentService;
+import model.services.EntityChangeListener;
+
+// one department list for every seller form, reloaded only when a department changes
+public class DepartmentChoices {
+
+	private static ObservableList<Department> departments = null;
+	private static DepartmentService departmentService;
+	// the notifier holds listeners weakly, this field keeps it alive
+	private static EntityChangeListener<Department> listener;
+
+	// FX thread only; the list starts empty and fills in when the first query returns
+	public static ObservableList<Department> get(DepartmentService service) {
+		if (departments == null) {
+			departments = FXCollections.observableArrayList();
+			departmentService = service;
+			listener = event -> Platform.runLater(DepartmentChoices::reload);
+			departmentService.subscribe(listener);
+			reload();
+		}
+		return departments;
+	}
+
+	private static void reload() {
+		Utils.onFxThread(departmentService.findAllAsync(), departments::setAll,
+				throwable -> Alerts.showAlert("Error loading departments", null, throwable.getMessage(),
+						AlertType.ERROR));
+	}
+
+}
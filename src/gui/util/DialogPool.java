@@ -0,0 +1,101 @@
+package gui.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+// modal form dialogs are built once per owner and re-bound to another entity each time they open
+public class DialogPool<T> {
+
+	private final String absoluteName;
+	private final String title;
+	private final Consumer<T> initializer;
+	// only touched from the FX thread
+	private final List<Dialog<T>> idle = new ArrayList<>();
+
+	// initializer runs once per dialog, right after its FXML is loaded
+	public DialogPool(String absoluteName, String title, Consumer<T> initializer) {
+		this.absoluteName = absoluteName;
+		this.title = title;
+		this.initializer = initializer;
+	}
+
+	// builds a dialog while the caller is idle, so the first open is as fast as the next ones
+	public void prepare(Window owner) throws IOException {
+		for (Dialog<T> dialog : idle) {
+			if (dialog.stage.getOwner() == owner) {
+				return;
+			}
+		}
+		idle.add(create(owner));
+	}
+
+	// for warming up only: on failure the dialog is built on the first open instead, which reports the error
+	public void prepareQuietly(Window owner) {
+		try {
+			prepare(owner);
+		} catch (IOException exception) {
+			// reported by open()
+		}
+	}
+
+	public void open(Window owner, Consumer<T> binder) throws IOException {
+		Dialog<T> dialog = acquire(owner);
+		try {
+			binder.accept(dialog.controller);
+			dialog.stage.showAndWait();
+		} finally {
+			idle.add(dialog);
+		}
+	}
+
+	private Dialog<T> acquire(Window owner) throws IOException {
+		Iterator<Dialog<T>> iterator = idle.iterator();
+		while (iterator.hasNext()) {
+			Dialog<T> dialog = iterator.next();
+			// the owner of a stage can not change once set
+			if (dialog.stage.getOwner() == owner) {
+				iterator.remove();
+				return dialog;
+			}
+		}
+		return create(owner);
+	}
+
+	private Dialog<T> create(Window owner) throws IOException {
+		FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
+		Parent pane = loader.load();
+		T controller = loader.getController();
+		initializer.accept(controller);
+
+		Stage stage = new Stage();
+		stage.setScene(new Scene(pane));
+		stage.setTitle(title);
+		stage.setResizable(false);
+		stage.initOwner(owner);
+		stage.initModality(Modality.WINDOW_MODAL);
+		return new Dialog<>(stage, controller);
+	}
+
+	private static class Dialog<T> {
+
+		private final Stage stage;
+		private final T controller;
+
+		private Dialog(Stage stage, T controller) {
+			this.stage = stage;
+			this.controller = controller;
+		}
+
+	}
+
+}
@@ -0,0 +1,93 @@
+package gui.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// formatters are built once per pattern and locale instead of once per table cell
+public class Formatters {
+
+	private static final double[] POWERS_OF_TEN = { 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000 };
+
+	// DateTimeFormatter is immutable, so one instance serves every thread
+	private static final Map<Key, DateTimeFormatter> dateFormatters = new ConcurrentHashMap<>();
+
+	public static DateTimeFormatter date(String pattern) {
+		return date(pattern, Locale.getDefault(Locale.Category.FORMAT));
+	}
+
+	public static DateTimeFormatter date(String pattern, Locale locale) {
+		return dateFormatters.computeIfAbsent(new Key(pattern, locale),
+				key -> DateTimeFormatter.ofPattern(pattern, locale).withZone(ZoneId.systemDefault()));
+	}
+
+	// the forms parse numbers with Double.parseDouble, so they are always shown with a '.' separator;
+	// the output is the same as String.format(Locale.US, "%.2f")
+	public static String formatDecimal(Double value, int decimalPlaces) {
+		if (value == null) {
+			return "";
+		}
+		if (value.isNaN() || value.isInfinite()) {
+			return String.format(Locale.US, "%." + decimalPlaces + "f", value);
+		}
+		StringBuilder text = new StringBuilder(24);
+		if (value < 0 || (value == 0 && 1 / value < 0)) {
+			text.append('-');
+		}
+		double scaled = Math.abs(value) * (decimalPlaces < POWERS_OF_TEN.length ? POWERS_OF_TEN[decimalPlaces] : 0);
+		if (decimalPlaces >= POWERS_OF_TEN.length || !(scaled < 1e15)
+				|| Math.abs(scaled - Math.floor(scaled) - 0.5) <= 4 * Math.ulp(scaled)) {
+			// String.format rounds the shortest decimal form of the double half up, not its exact binary value,
+			// so 1.005 becomes 1.01; near a half only the decimal form tells which way to go
+			text.append(new BigDecimal(Double.toString(Math.abs(value))).setScale(decimalPlaces, RoundingMode.HALF_UP)
+					.toPlainString());
+			return text.toString();
+		}
+		// table cells hit this path: away from a half, plain long arithmetic rounds the same way
+		long units = (long) (scaled + 0.5);
+		long scale = (long) POWERS_OF_TEN[decimalPlaces];
+		text.append(units / scale);
+		if (decimalPlaces > 0) {
+			String fraction = Long.toString(units % scale);
+			text.append('.');
+			for (int i = fraction.length(); i < decimalPlaces; i++) {
+				text.append('0');
+			}
+			text.append(fraction);
+		}
+		return text.toString();
+	}
+
+	private static final class Key {
+
+		private final String pattern;
+		private final Locale locale;
+
+		private Key(String pattern, Locale locale) {
+			this.pattern = pattern;
+			this.locale = locale;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			Key that = (Key) o;
+			return pattern.equals(that.pattern) && locale.equals(that.locale);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(pattern, locale);
+		}
+
+	}
+
+}
@@ -0,0 +1,277 @@
+package gui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import javafx.collections.ObservableListBase;
+
+// list for TableView that only holds a window of pages; rows outside it read as null until loaded
+public class LazyPagedList<T> extends ObservableListBase<T> {
+
+	@FunctionalInterface
+	public interface PageLoader<T> {
+
+		// previous is the row just before offset when it is still in memory, so the loader can seek by key
+		CompletableFuture<List<T>> load(int offset, int limit, T previous);
+
+	}
+
+	private final int pageSize;
+	private final int maxPages;
+	private final PageLoader<T> loader;
+	private final Map<Integer, List<T>> pages;
+	private final Map<Integer, CompletableFuture<List<T>>> loading = new LinkedHashMap<>();
+	// pages that failed are not retried until the next reset, otherwise every layout pass would query again
+	private final Set<Integer> failed = new HashSet<>();
+	private Consumer<Throwable> onLoadFailed = throwable -> {
+	};
+	private int size;
+
+	public LazyPagedList(int pageSize, int maxPages, PageLoader<T> loader) {
+		this.pageSize = pageSize;
+		this.maxPages = maxPages;
+		this.loader = loader;
+		// access order makes the eldest entry the least recently viewed page
+		this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+				return size() > LazyPagedList.this.maxPages;
+			}
+		};
+	}
+
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int page = index / pageSize;
+		List<T> items = pages.get(page);
+		if (items == null) {
+			requestPage(page);
+			return null;
+		}
+		int offset = index % pageSize;
+		return offset < items.size() ? items.get(offset) : null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// drops every loaded page and announces the new row count, pages reload as cells ask for them
+	public void reset(int newSize) {
+		pages.clear();
+		loading.values().forEach(future -> future.cancel(false));
+		loading.clear();
+		failed.clear();
+		int oldSize = size;
+		size = newSize;
+
+		beginChange();
+		if (oldSize > 0) {
+			nextRemove(0, Collections.nCopies(oldSize, null));
+		}
+		if (newSize > 0) {
+			nextAdd(0, newSize);
+		}
+		endChange();
+	}
+
+	// swaps a row in place when it is in a loaded page; returns false when it was not found
+	public boolean replace(Predicate<T> match, T item) {
+		for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+			List<T> items = entry.getValue();
+			for (int i = 0; i < items.size(); i++) {
+				if (match.test(items.get(i))) {
+					T old = items.set(i, item);
+					int index = entry.getKey() * pageSize + i;
+					beginChange();
+					nextSet(index, old);
+					endChange();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// adds a row at its place in order when that place falls inside the loaded pages, shifting the rows after it
+	// by one; returns false when the neighbours are not in memory and the caller has to recount
+	public boolean insertSorted(T item, Comparator<? super T> order) {
+		int index = size == 0 ? 0 : indexFor(item, order);
+		if (index < 0) {
+			return false;
+		}
+		int page = index / pageSize;
+		dropPendingFrom(page);
+		T carry = item;
+		for (int p = page, offset = index % pageSize; carry != null; p++, offset = 0) {
+			List<T> items = pages.get(p);
+			if (items == null) {
+				if (p * pageSize < size) {
+					// the row pushed into this page is not kept, the page and the ones after it load again
+					int unloaded = p;
+					pages.keySet().removeIf(key -> key >= unloaded);
+				} else {
+					pages.put(p, new ArrayList<>(Collections.singletonList(carry)));
+				}
+				break;
+			}
+			items.add(offset, carry);
+			carry = items.size() > pageSize ? items.remove(pageSize) : null;
+		}
+		size++;
+
+		beginChange();
+		nextAdd(index, index + 1);
+		endChange();
+		return true;
+	}
+
+	// takes a row out of the loaded pages and pulls the following rows up by one; returns false when it was not
+	// found, which for a list that is not fully loaded does not mean it is absent
+	public boolean removeMatching(Predicate<T> match) {
+		int index = indexOf(match);
+		if (index < 0) {
+			return false;
+		}
+		int page = index / pageSize;
+		dropPendingFrom(page);
+		T removed = pages.get(page).remove(index % pageSize);
+		for (int p = page + 1; p * pageSize < size; p++) {
+			List<T> next = pages.get(p);
+			if (next == null) {
+				// the row that would move up is not in memory, so the page above is incomplete as well
+				int incomplete = p - 1;
+				pages.keySet().removeIf(key -> key >= incomplete);
+				break;
+			}
+			pages.get(p - 1).add(next.remove(0));
+		}
+		size--;
+		// a last page that only held the row that moved up is gone
+		int lastPage = (size - 1) / pageSize;
+		pages.keySet().removeIf(key -> key > lastPage || size == 0);
+
+		beginChange();
+		nextRemove(index, removed);
+		endChange();
+		return true;
+	}
+
+	// every page is in memory, so a row that is not found is not in the list at all
+	public boolean isFullyLoaded() {
+		for (int page = 0; page * pageSize < size; page++) {
+			if (!pages.containsKey(page)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int getLoadedPageCount() {
+		return pages.size();
+	}
+
+	public void setOnLoadFailed(Consumer<Throwable> onLoadFailed) {
+		this.onLoadFailed = onLoadFailed;
+	}
+
+	private int indexFor(T item, Comparator<? super T> order) {
+		int lastPage = (size - 1) / pageSize;
+		// a copy, looking pages up in the access ordered map would reorder it while it is iterated
+		Map<Integer, List<T>> loaded = new HashMap<>(pages);
+		for (Map.Entry<Integer, List<T>> entry : loaded.entrySet()) {
+			int page = entry.getKey();
+			List<T> items = entry.getValue();
+			if (items.isEmpty()) {
+				continue;
+			}
+			if (order.compare(item, items.get(0)) < 0) {
+				// before this page: certain only at the very start or right after a loaded page
+				List<T> previous = loaded.get(page - 1);
+				if (page == 0 || (previous != null && !previous.isEmpty()
+						&& order.compare(item, previous.get(previous.size() - 1)) > 0)) {
+					return page * pageSize;
+				}
+			} else if (order.compare(item, items.get(items.size() - 1)) <= 0 || page == lastPage) {
+				int position = Collections.binarySearch(items, item, order);
+				return page * pageSize + (position < 0 ? -position - 1 : position);
+			}
+		}
+		return -1;
+	}
+
+	private int indexOf(Predicate<T> match) {
+		for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+			List<T> items = entry.getValue();
+			for (int i = 0; i < items.size(); i++) {
+				if (match.test(items.get(i))) {
+					return entry.getKey() * pageSize + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	// loads already sent for the shifted pages would come back with rows at the old offsets
+	private void dropPendingFrom(int page) {
+		loading.entrySet().removeIf(entry -> {
+			if (entry.getKey() < page) {
+				return false;
+			}
+			entry.getValue().cancel(false);
+			return true;
+		});
+		failed.removeIf(key -> key >= page);
+	}
+
+	private void requestPage(int page) {
+		if (loading.containsKey(page) || failed.contains(page)) {
+			return;
+		}
+		List<T> previousPage = page == 0 ? null : pages.get(page - 1);
+		T previous = previousPage == null || previousPage.isEmpty() ? null : previousPage.get(previousPage.size() - 1);
+
+		CompletableFuture<List<T>> load = loader.load(page * pageSize, pageSize, previous);
+		loading.put(page, load);
+		Utils.onFxThread(load, items -> {
+			if (loading.get(page) != load) {
+				return;
+			}
+			loading.remove(page);
+			// inserts and removes shift rows between pages, so each page keeps its own copy
+			pages.put(page, new ArrayList<>(items));
+
+			int from = page * pageSize;
+			int to = Math.min(from + pageSize, size);
+			if (from < to) {
+				beginChange();
+				nextReplace(from, to, Collections.nCopies(to - from, null));
+				endChange();
+			}
+		}, throwable -> {
+			if (loading.get(page) != load) {
+				return;
+			}
+			loading.remove(page);
+			failed.add(page);
+			onLoadFailed.accept(throwable);
+		});
+	}
+
+}
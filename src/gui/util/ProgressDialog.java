@@ -0,0 +1,58 @@
+package gui.util;
+
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+public class ProgressDialog {
+
+	private final Stage stage = new Stage();
+	private final Label label = new Label();
+	private final ProgressBar progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+	private final Button btCancel = new Button("Cancel");
+
+	public ProgressDialog(String title, Window owner) {
+		progressBar.setPrefWidth(320.0);
+		btCancel.setVisible(false);
+		btCancel.setManaged(false);
+		VBox root = new VBox(10.0, label, progressBar, btCancel);
+		root.setPadding(new Insets(15.0));
+
+		stage.setScene(new Scene(root));
+		stage.setTitle(title);
+		stage.setResizable(false);
+		stage.initOwner(owner);
+		stage.initModality(Modality.WINDOW_MODAL);
+	}
+
+	public void show() {
+		stage.show();
+	}
+
+	public void close() {
+		stage.close();
+	}
+
+	// shows a Cancel button, closing the window runs the same action
+	public void setOnCancel(Runnable onCancel) {
+		btCancel.setVisible(true);
+		btCancel.setManaged(true);
+		btCancel.setOnAction(event -> onCancel.run());
+		stage.setOnCloseRequest(event -> onCancel.run());
+	}
+
+	public void setMessage(String message) {
+		label.setText(message);
+	}
+
+	public void setProgress(long done, long total) {
+		progressBar.setProgress(total <= 0 ? ProgressBar.INDETERMINATE_PROGRESS : (double) done / total);
+	}
+
+}
@@ -1,11 +1,13 @@
 package gui.util;
 
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
-import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.scene.Node;
 import javafx.scene.control.DatePicker;
@@ -20,6 +22,22 @@ public class Utils {
 		return (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
 	}
 
+	public static <T> void onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess,
+			Consumer<Throwable> onFailure) {
+		future.whenComplete((result, throwable) -> Platform.runLater(() -> {
+			if (future.isCancelled()) {
+				return;
+			}
+			if (throwable == null) {
+				onSuccess.accept(result);
+			} else if (throwable instanceof CompletionException && throwable.getCause() != null) {
+				onFailure.accept(throwable.getCause());
+			} else {
+				onFailure.accept(throwable);
+			}
+		}));
+	}
+
 	public static Integer tryParseToInt(String value) {
 		try {
 			return Integer.parseInt(value);
@@ -37,17 +55,16 @@ public class Utils {
 	}
 
 	public static <T> void formatTableColumnDate(TableColumn<T, Date> tableColumn, String format) {
+		DateTimeFormatter dateFormatter = Formatters.date(format);
 		tableColumn.setCellFactory(column -> {
 			TableCell<T, Date> cell = new TableCell<T, Date>() {
-				private SimpleDateFormat sdf = new SimpleDateFormat(format);
-
 				@Override
 				protected void updateItem(Date item, boolean empty) {
 					super.updateItem(item, empty);
-					if (empty) {
+					if (empty || item == null) {
 						setText(null);
 					} else {
-						setText(sdf.format(item));
+						setText(dateFormatter.format(item.toInstant()));
 					}
 				}
 			};
@@ -61,11 +78,10 @@ public class Utils {
 				@Override
 				protected void updateItem(Double item, boolean empty) {
 					super.updateItem(item, empty);
-					if (empty) {
+					if (empty || item == null) {
 						setText(null);
 					} else {
-						Locale.setDefault(Locale.US);
-						setText(String.format("%." + decimalPlaces + "f", item));
+						setText(Formatters.formatDecimal(item, decimalPlaces));
 					}
 				}
 			};
@@ -76,7 +92,7 @@ public class Utils {
 	public static void formatDatePicker(DatePicker datePicker, String format) {
 		datePicker.setConverter(new StringConverter<LocalDate>() {
 
-			DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(format);
+			DateTimeFormatter dateFormatter = Formatters.date(format);
 			{
 				datePicker.setPromptText(format.toLowerCase());
 			}
@@ -0,0 +1,101 @@
+package gui.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.layout.VBox;
+
+// each view is parsed and initialized once; its nodes and controller are then reused every time it is shown
+public class ViewRegistry {
+
+	public static class View<T> {
+
+		private final List<Node> nodes;
+		private final T controller;
+
+		private View(List<Node> nodes, T controller) {
+			this.nodes = nodes;
+			this.controller = controller;
+		}
+
+		public List<Node> getNodes() {
+			return nodes;
+		}
+
+		public T getController() {
+			return controller;
+		}
+
+	}
+
+	// only touched from the FX thread
+	private final Map<String, CompletableFuture<View<?>>> views = new HashMap<>();
+
+	// the controllers' initialize() binds to the live window, so FXML is only ever loaded on the FX thread;
+	// a preload is queued behind the pending events and runs once the window is idle
+	public <T> CompletableFuture<View<T>> preload(String absoluteName, Consumer<T> initializer) {
+		CompletableFuture<View<?>> view = views.get(absoluteName);
+		if (view == null || view.isCompletedExceptionally()) {
+			CompletableFuture<View<?>> loading = new CompletableFuture<>();
+			Platform.runLater(() -> {
+				try {
+					loading.complete(initialize(load(absoluteName), initializer));
+				} catch (RuntimeException exception) {
+					loading.completeExceptionally(exception);
+				}
+			});
+			view = loading;
+			views.put(absoluteName, view);
+		}
+		return cast(view);
+	}
+
+	// a view that was never preloaded, or whose preload failed, is loaded right away on the FX thread
+	public <T> CompletableFuture<View<T>> get(String absoluteName, Consumer<T> initializer) {
+		CompletableFuture<View<?>> view = views.get(absoluteName);
+		if (view == null || view.isCompletedExceptionally()) {
+			try {
+				view = CompletableFuture.completedFuture(initialize(load(absoluteName), initializer));
+			} catch (RuntimeException exception) {
+				view = CompletableFuture.failedFuture(exception);
+			}
+			views.put(absoluteName, view);
+		}
+		return cast(view);
+	}
+
+	public void evict(String absoluteName) {
+		views.remove(absoluteName);
+	}
+
+	private View<?> load(String absoluteName) {
+		try {
+			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
+			VBox vBox = loader.load();
+			return new View<>(new ArrayList<>(vBox.getChildren()), loader.getController());
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> View<?> initialize(View<?> view, Consumer<T> initializer) {
+		initializer.accept((T) view.getController());
+		return view;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> CompletableFuture<View<T>> cast(CompletableFuture<View<?>> view) {
+		return (CompletableFuture<View<T>>) (CompletableFuture<?>) view;
+	}
+
+}
@@ -0,0 +1,19 @@
+package model.dao;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface ChangeLogDao {
+
+	void append(String entityType, Integer entityId, String changeType);
+
+	List<ChangeLogEntry> findAfter(long id, int limit);
+
+	List<ChangeLogEntry> findByIds(Collection<Long> ids);
+
+	long lastId();
+
+	int deleteOlderThan(Date cutoff);
+
+}
@@ -0,0 +1,64 @@
+package model.dao;
+
+import java.util.UUID;
+
+// one row of change_log: which entity changed, how, and which running application wrote it
+public class ChangeLogEntry {
+
+	public static final String SELLER = "seller";
+	public static final String DEPARTMENT = "department";
+
+	public static final String INSERTED = "INSERTED";
+	public static final String UPDATED = "UPDATED";
+	public static final String DELETED = "DELETED";
+	// batch writes log a single row without an id, readers reload instead
+	public static final String RELOADED = "RELOADED";
+
+	// tells this process's own changes apart, they were already announced when they committed
+	public static final String LOCAL_ORIGIN = UUID.randomUUID().toString();
+
+	private final long id;
+	private final String entityType;
+	private final Integer entityId;
+	private final String changeType;
+	private final String origin;
+
+	public ChangeLogEntry(long id, String entityType, Integer entityId, String changeType, String origin) {
+		this.id = id;
+		this.entityType = entityType;
+		this.entityId = entityId;
+		this.changeType = changeType;
+		this.origin = origin;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getEntityType() {
+		return entityType;
+	}
+
+	public Integer getEntityId() {
+		return entityId;
+	}
+
+	public String getChangeType() {
+		return changeType;
+	}
+
+	public String getOrigin() {
+		return origin;
+	}
+
+	public boolean isLocal() {
+		return LOCAL_ORIGIN.equals(origin);
+	}
+
+	@Override
+	public String toString() {
+		return "ChangeLogEntry{" + "id=" + id + ", entityType=" + entityType + ", entityId=" + entityId
+				+ ", changeType=" + changeType + ", origin=" + origin + '}';
+	}
+
+}
@@ -0,0 +1,12 @@
+package model.dao;
+
+// creates the raw DAOs of one storage; DaoFactory adds the department cache and the instrumentation on top
+public interface DaoBackend {
+
+	SellerDao createSellerDao(DepartmentDao departmentDao);
+
+	DepartmentDao createDepartmentDao();
+
+	ChangeLogDao createChangeLogDao();
+
+}
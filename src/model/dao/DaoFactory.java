@@ -1,17 +1,65 @@
 package model.dao;
 
 import db.DB;
-import model.dao.impl.DepartmentDaoJDBC;
-import model.dao.impl.SellerDaoJDBC;
+import db.DbException;
+import db.QueryMetrics;
+import model.dao.impl.CachingDepartmentDao;
+import model.dao.impl.EmbeddedDaoBackend;
+import model.dao.impl.JdbcDaoBackend;
 
 public class DaoFactory {
 
+	private static DaoBackend backend = null;
+	private static DepartmentDao departmentDao = null;
+	private static CachingDepartmentDao cachingDepartmentDao = null;
+
 	public static SellerDao createSellerDao() {
-		return new SellerDaoJDBC(DB.getConnection());
+		return QueryMetrics.instrument(SellerDao.class, getBackend().createSellerDao(createDepartmentDao()));
+	}
+
+	public static synchronized DepartmentDao createDepartmentDao() {
+		// shared so that every service sees the same cache and its invalidations
+		if (departmentDao == null) {
+			cachingDepartmentDao = new CachingDepartmentDao(getBackend().createDepartmentDao(),
+					DB.getIntProperty("cache.department.ttlSeconds", 300),
+					DB.getIntProperty("cache.department.maxSize", 1000));
+			departmentDao = QueryMetrics.instrument(DepartmentDao.class, cachingDepartmentDao);
+		}
+		return departmentDao;
+	}
+
+	public static ChangeLogDao createChangeLogDao() {
+		return QueryMetrics.instrument(ChangeLogDao.class, getBackend().createChangeLogDao());
+	}
+
+	// another client changed departments behind the cache's back
+	public static synchronized void invalidateCaches() {
+		if (cachingDepartmentDao != null) {
+			cachingDepartmentDao.invalidate();
+		}
+	}
+
+	// dao.backend: jdbc (default), embedded, or the class name of another DaoBackend
+	public static synchronized DaoBackend getBackend() {
+		if (backend == null) {
+			backend = createBackend(DB.getProperties().getProperty("dao.backend", "jdbc").trim());
+		}
+		return backend;
 	}
 
-	public static DepartmentDao createDepartmentDao() {
-		return new DepartmentDaoJDBC(DB.getConnection());
+	private static DaoBackend createBackend(String name) {
+		switch (name) {
+		case "jdbc":
+			return new JdbcDaoBackend();
+		case "embedded":
+			return new EmbeddedDaoBackend(DB.getProperties().getProperty("embedded.path", ""));
+		default:
+			try {
+				return (DaoBackend) Class.forName(name).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | ClassCastException exception) {
+				throw new DbException("Invalid value for dao.backend: " + name);
+			}
+		}
 	}
 
 }
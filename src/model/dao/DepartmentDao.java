@@ -1,5 +1,6 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import model.entities.Department;
@@ -12,8 +13,16 @@ public interface DepartmentDao {
 
 	void deleteById(Integer id);
 
+	void insertAll(Collection<Department> departments);
+
+	void updateAll(Collection<Department> departments);
+
+	void deleteAllById(Collection<Integer> ids);
+
 	Department findById(Integer id);
 
 	List<Department> findAll();
 
+	List<DepartmentSummary> findAllWithSellerCount();
+
 }
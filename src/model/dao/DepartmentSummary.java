@@ -0,0 +1,37 @@
+package model.dao;
+
+import model.entities.Department;
+
+// a department as listed on screen, with the number of sellers counted by the same query
+public class DepartmentSummary {
+
+	private final Department department;
+	private final long sellerCount;
+
+	public DepartmentSummary(Department department, long sellerCount) {
+		this.department = department;
+		this.sellerCount = sellerCount;
+	}
+
+	public Department getDepartment() {
+		return department;
+	}
+
+	public Integer getId() {
+		return department.getId();
+	}
+
+	public String getName() {
+		return department.getName();
+	}
+
+	public long getSellerCount() {
+		return sellerCount;
+	}
+
+	@Override
+	public String toString() {
+		return "DepartmentSummary{" + "department=" + department + ", sellerCount=" + sellerCount + '}';
+	}
+
+}
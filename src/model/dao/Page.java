@@ -0,0 +1,27 @@
+package model.dao;
+
+import java.util.List;
+
+public class Page<T> {
+
+	private final List<T> items;
+	private final boolean hasNext;
+
+	public Page(List<T> items, boolean hasNext) {
+		this.items = items;
+		this.hasNext = hasNext;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public boolean hasNext() {
+		return hasNext;
+	}
+
+	public T getLast() {
+		return items.isEmpty() ? null : items.get(items.size() - 1);
+	}
+
+}
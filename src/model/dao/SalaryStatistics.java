@@ -0,0 +1,61 @@
+package model.dao;
+
+// one row of the salary report; primitives only, so a report is a handful of small objects whatever the table size
+public class SalaryStatistics {
+
+	private final int departmentId;
+	private final String departmentName;
+	private final long headcount;
+	private final double total;
+	private final double average;
+	private final double min;
+	private final double max;
+
+	public SalaryStatistics(int departmentId, String departmentName, long headcount, double total, double average,
+			double min, double max) {
+		this.departmentId = departmentId;
+		this.departmentName = departmentName;
+		this.headcount = headcount;
+		this.total = total;
+		this.average = average;
+		this.min = min;
+		this.max = max;
+	}
+
+	public int getDepartmentId() {
+		return departmentId;
+	}
+
+	public String getDepartmentName() {
+		return departmentName;
+	}
+
+	public long getHeadcount() {
+		return headcount;
+	}
+
+	public double getTotal() {
+		return total;
+	}
+
+	// 0 for departments without sellers, like the other figures
+	public double getAverage() {
+		return average;
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		return "SalaryStatistics [departmentId=" + departmentId + ", departmentName=" + departmentName
+				+ ", headcount=" + headcount + ", total=" + total + ", average=" + average + ", min=" + min
+				+ ", max=" + max + "]";
+	}
+
+}
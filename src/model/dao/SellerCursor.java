@@ -0,0 +1,32 @@
+package model.dao;
+
+import model.entities.Seller;
+
+public class SellerCursor {
+
+	private final String name;
+	private final int id;
+
+	public SellerCursor(String name, int id) {
+		this.name = name;
+		this.id = id;
+	}
+
+	public static SellerCursor after(Seller seller) {
+		return seller == null ? null : new SellerCursor(seller.getName(), seller.getId());
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return "SellerCursor{" + "name='" + name + '\'' + ", id=" + id + '}';
+	}
+
+}
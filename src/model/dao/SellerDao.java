@@ -1,6 +1,8 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import model.entities.Department;
 import model.entities.Seller;
@@ -13,10 +15,34 @@ public interface SellerDao {
 
 	void deleteById(Integer id);
 
+	void insertAll(Collection<Seller> sellers);
+
+	void updateAll(Collection<Seller> sellers);
+
+	void deleteAllById(Collection<Integer> ids);
+
+	int deleteByDepartment(Integer departmentId);
+
 	Seller findById(Integer id);
 
 	List<Seller> findAll();
 
+	long count();
+
 	List<Seller> findByDepartment(Department department);
 
+	Stream<Seller> stream();
+
+	Stream<Seller> stream(int fetchSize);
+
+	Page<Seller> findPage(SellerCursor cursor, int pageSize, SortOrder sortOrder);
+
+	Page<Seller> search(SellerSearchCriteria criteria, SellerCursor cursor, int pageSize);
+
+	List<Seller> search(SellerSearchCriteria criteria, int offset, int limit);
+
+	long count(SellerSearchCriteria criteria);
+
+	List<SalaryStatistics> salaryStatisticsByDepartment();
+
 }
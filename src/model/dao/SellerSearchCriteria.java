@@ -0,0 +1,108 @@
+package model.dao;
+
+import java.util.Date;
+
+import model.entities.Seller;
+
+public class SellerSearchCriteria {
+
+	private String namePrefix;
+	private String emailPrefix;
+	private Integer departmentId;
+	private Double minBaseSalary;
+	private Double maxBaseSalary;
+	private Date birthDateFrom;
+	private Date birthDateTo;
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	public void setNamePrefix(String namePrefix) {
+		this.namePrefix = namePrefix;
+	}
+
+	public String getEmailPrefix() {
+		return emailPrefix;
+	}
+
+	public void setEmailPrefix(String emailPrefix) {
+		this.emailPrefix = emailPrefix;
+	}
+
+	public Integer getDepartmentId() {
+		return departmentId;
+	}
+
+	public void setDepartmentId(Integer departmentId) {
+		this.departmentId = departmentId;
+	}
+
+	public Double getMinBaseSalary() {
+		return minBaseSalary;
+	}
+
+	public void setMinBaseSalary(Double minBaseSalary) {
+		this.minBaseSalary = minBaseSalary;
+	}
+
+	public Double getMaxBaseSalary() {
+		return maxBaseSalary;
+	}
+
+	public void setMaxBaseSalary(Double maxBaseSalary) {
+		this.maxBaseSalary = maxBaseSalary;
+	}
+
+	public Date getBirthDateFrom() {
+		return birthDateFrom;
+	}
+
+	public void setBirthDateFrom(Date birthDateFrom) {
+		this.birthDateFrom = birthDateFrom;
+	}
+
+	public Date getBirthDateTo() {
+		return birthDateTo;
+	}
+
+	public void setBirthDateTo(Date birthDateTo) {
+		this.birthDateTo = birthDateTo;
+	}
+
+	// in-memory counterpart of the WHERE clause built by SellerDaoJDBC, prefixes compared case-insensitively
+	public boolean matches(Seller seller) {
+		if (!startsWithIgnoreCase(seller.getName(), namePrefix) || !startsWithIgnoreCase(seller.getEmail(), emailPrefix)) {
+			return false;
+		}
+		if (departmentId != null
+				&& (seller.getDepartment() == null || !departmentId.equals(seller.getDepartment().getId()))) {
+			return false;
+		}
+		if (minBaseSalary != null && (seller.getBaseSalary() == null || seller.getBaseSalary() < minBaseSalary)) {
+			return false;
+		}
+		if (maxBaseSalary != null && (seller.getBaseSalary() == null || seller.getBaseSalary() > maxBaseSalary)) {
+			return false;
+		}
+		if (birthDateFrom != null && (seller.getBirthDate() == null || seller.getBirthDate().before(birthDateFrom))) {
+			return false;
+		}
+		return birthDateTo == null || (seller.getBirthDate() != null && !seller.getBirthDate().after(birthDateTo));
+	}
+
+	private static boolean startsWithIgnoreCase(String value, String prefix) {
+		if (prefix == null || prefix.isEmpty()) {
+			return true;
+		}
+		return value != null && value.regionMatches(true, 0, prefix, 0, prefix.length());
+	}
+
+	@Override
+	public String toString() {
+		return "SellerSearchCriteria{" + "namePrefix='" + namePrefix + '\'' + ", emailPrefix='" + emailPrefix + '\''
+				+ ", departmentId=" + departmentId + ", minBaseSalary=" + minBaseSalary + ", maxBaseSalary="
+				+ maxBaseSalary + ", birthDateFrom=" + birthDateFrom + ", birthDateTo=" + birthDateTo + '}';
+	}
+
+}
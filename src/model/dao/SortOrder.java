@@ -0,0 +1,7 @@
+package model.dao;
+
+public enum SortOrder {
+
+	ASC, DESC;
+
+}
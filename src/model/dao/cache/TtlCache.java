@@ -0,0 +1,128 @@
+package model.dao.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public class TtlCache<K, V> {
+
+	private final long ttlNanos;
+	private final int maxSize;
+	private final Map<K, Entry<V>> entries;
+	private long generation = 0;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public TtlCache(long ttl, TimeUnit unit, int maxSize) {
+		this.ttlNanos = unit.toNanos(ttl);
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > TtlCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public V get(K key, Function<K, V> loader) {
+		long loadGeneration;
+		synchronized (this) {
+			V value = getIfPresent(key);
+			if (value != null) {
+				return value;
+			}
+			loadGeneration = generation;
+		}
+		// loaded outside the lock so a slow query never blocks other readers
+		V value = loader.apply(key);
+		synchronized (this) {
+			// an invalidation during the load means the value may already be stale
+			if (value != null && loadGeneration == generation) {
+				put(key, value);
+			}
+		}
+		return value;
+	}
+
+	public synchronized V getIfPresent(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		if (entry.expiresAt - System.nanoTime() <= 0) {
+			entries.remove(key);
+			evictions.increment();
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return entry.value;
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+	}
+
+	public synchronized void invalidate(K key) {
+		generation++;
+		entries.remove(key);
+	}
+
+	public synchronized void invalidateAll() {
+		generation++;
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0.0 : hitCount / (double) total;
+	}
+
+	@Override
+	public String toString() {
+		return "TtlCache{" + "size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions="
+				+ getEvictions() + ", hitRate=" + String.format("%.2f", getHitRate()) + '}';
+	}
+
+	private static class Entry<V> {
+
+		private final V value;
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+}
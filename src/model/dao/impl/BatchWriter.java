@@ -0,0 +1,86 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import db.DB;
+import db.DbException;
+import db.TransactionManager;
+import model.dao.ChangeLogDao;
+import model.dao.ChangeLogEntry;
+
+// the insertAll/updateAll/deleteAllById plumbing of the JDBC DAOs: one transaction, batch.size rows per
+// executeBatch, and a single RELOADED change log entry for the whole write
+public class BatchWriter {
+
+	@FunctionalInterface
+	public interface StatementBinder<T> {
+
+		void bind(PreparedStatement preparedStatement, T item) throws SQLException;
+
+	}
+
+	// called after each executeBatch with the rows it covered, to read generated keys or check the counts
+	@FunctionalInterface
+	public interface BatchResultHandler<T> {
+
+		void handle(PreparedStatement preparedStatement, int[] rowsAffected, List<T> chunk) throws SQLException;
+
+	}
+
+	private final ChangeLogDao changeLogDao;
+	private final String entityType;
+
+	public BatchWriter(ChangeLogDao changeLogDao, String entityType) {
+		this.changeLogDao = changeLogDao;
+		this.entityType = entityType;
+	}
+
+	public <T> void write(Collection<T> items, String sql, int autoGeneratedKeys, StatementBinder<T> binder,
+			BatchResultHandler<T> resultHandler) {
+		if (items.isEmpty()) {
+			return;
+		}
+		TransactionManager.run(() -> {
+			executeBatches(items, sql, autoGeneratedKeys, binder, resultHandler);
+			changeLogDao.append(entityType, null, ChangeLogEntry.RELOADED);
+		});
+	}
+
+	private <T> void executeBatches(Collection<T> items, String sql, int autoGeneratedKeys,
+			StatementBinder<T> binder, BatchResultHandler<T> resultHandler) {
+		int batchSize = DB.getIntProperty("batch.size", 1000);
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+
+		try {
+			conn = DB.getConnection();
+			preparedStatement = conn.prepareStatement(sql, autoGeneratedKeys);
+
+			List<T> chunk = new ArrayList<>(Math.min(batchSize, items.size()));
+			for (T item : items) {
+				binder.bind(preparedStatement, item);
+				preparedStatement.addBatch();
+				chunk.add(item);
+
+				if (chunk.size() == batchSize) {
+					resultHandler.handle(preparedStatement, preparedStatement.executeBatch(), chunk);
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				resultHandler.handle(preparedStatement, preparedStatement.executeBatch(), chunk);
+			}
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
+		}
+	}
+
+}
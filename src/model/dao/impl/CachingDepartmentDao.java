@@ -0,0 +1,154 @@
+package model.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import db.TransactionManager;
+import model.dao.DepartmentDao;
+import model.dao.DepartmentSummary;
+import model.dao.cache.TtlCache;
+import model.entities.Department;
+
+public class CachingDepartmentDao implements DepartmentDao {
+
+	private static final String ALL = "all";
+
+	private final DepartmentDao departmentDao;
+	private final TtlCache<Integer, Department> byId;
+	private final TtlCache<String, List<Department>> all;
+
+	public CachingDepartmentDao(DepartmentDao departmentDao, long ttlSeconds, int maxSize) {
+		this.departmentDao = departmentDao;
+		this.byId = new TtlCache<>(ttlSeconds, TimeUnit.SECONDS, maxSize);
+		this.all = new TtlCache<>(ttlSeconds, TimeUnit.SECONDS, 1);
+	}
+
+	@Override
+	public void insert(Department department) {
+		try {
+			departmentDao.insert(department);
+		} finally {
+			invalidateAfterCommit();
+		}
+	}
+
+	@Override
+	public void update(Department department) {
+		try {
+			departmentDao.update(department);
+		} finally {
+			invalidateAfterCommit();
+		}
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		try {
+			departmentDao.deleteById(id);
+		} finally {
+			invalidateAfterCommit();
+		}
+	}
+
+	@Override
+	public void insertAll(Collection<Department> departments) {
+		try {
+			departmentDao.insertAll(departments);
+		} finally {
+			invalidateAfterCommit();
+		}
+	}
+
+	@Override
+	public void updateAll(Collection<Department> departments) {
+		try {
+			departmentDao.updateAll(departments);
+		} finally {
+			invalidateAfterCommit();
+		}
+	}
+
+	@Override
+	public void deleteAllById(Collection<Integer> ids) {
+		try {
+			departmentDao.deleteAllById(ids);
+		} finally {
+			invalidateAfterCommit();
+		}
+	}
+
+	// inside a transaction the rows may be uncommitted, so they are neither served from nor put in the cache
+	@Override
+	public Department findById(Integer id) {
+		if (TransactionManager.isActive()) {
+			return departmentDao.findById(id);
+		}
+		return copy(byId.get(id, departmentDao::findById));
+	}
+
+	@Override
+	public List<Department> findAll() {
+		if (TransactionManager.isActive()) {
+			return departmentDao.findAll();
+		}
+		List<Department> departments = all.get(ALL, key -> {
+			List<Department> loaded = departmentDao.findAll();
+			loaded.forEach(department -> byId.put(department.getId(), department));
+			return loaded;
+		});
+		// callers get their own list and their own instances, the cached ones are never handed out
+		List<Department> copies = new ArrayList<>(departments.size());
+		for (Department department : departments) {
+			copies.add(copy(department));
+		}
+		return copies;
+	}
+
+	// seller writes change the counts without going through this class, so they are never cached
+	@Override
+	public List<DepartmentSummary> findAllWithSellerCount() {
+		return departmentDao.findAllWithSellerCount();
+	}
+
+	public void invalidate() {
+		byId.invalidateAll();
+		all.invalidateAll();
+	}
+
+	// until the commit other threads may still load the old rows; dropping them afterwards discards those too
+	private void invalidateAfterCommit() {
+		invalidate();
+		TransactionManager.afterCommit(this::invalidate);
+	}
+
+	private static Department copy(Department department) {
+		if (department == null) {
+			return null;
+		}
+		Department copy = new Department(department.getId(), department.getName());
+		copy.setVersion(department.getVersion());
+		return copy;
+	}
+
+	public long getHits() {
+		return byId.getHits() + all.getHits();
+	}
+
+	public long getMisses() {
+		return byId.getMisses() + all.getMisses();
+	}
+
+	public double getHitRate() {
+		long hits = getHits();
+		long total = hits + getMisses();
+		return total == 0 ? 0.0 : hits / (double) total;
+	}
+
+	@Override
+	public String toString() {
+		return "CachingDepartmentDao{" + "byId=" + byId + ", all=" + all + '}';
+	}
+
+}
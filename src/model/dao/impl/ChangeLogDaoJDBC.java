@@ -0,0 +1,173 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import db.DB;
+import db.DbException;
+import model.dao.ChangeLogDao;
+import model.dao.ChangeLogEntry;
+
+public class ChangeLogDaoJDBC implements ChangeLogDao {
+
+	// called by the entity DAOs inside their transaction, so the row commits or rolls back with the change
+	@Override
+	public void append(String entityType, Integer entityId, String changeType) {
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+
+		try {
+			conn = DB.getConnection();
+			preparedStatement = conn.prepareStatement(
+					"INSERT INTO change_log "
+					+ "(EntityType, EntityId, ChangeType, Origin, ChangedAt) "
+					+ "VALUES (?, ?, ?, ?, ?)");
+
+			preparedStatement.setString(1, entityType);
+			preparedStatement.setObject(2, entityId);
+			preparedStatement.setString(3, changeType);
+			preparedStatement.setString(4, ChangeLogEntry.LOCAL_ORIGIN);
+			preparedStatement.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+
+			preparedStatement.executeUpdate();
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<ChangeLogEntry> findAfter(long id, int limit) {
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		try {
+			// the feed polls constantly, a replica can serve it and a lagging one only delays the delivery
+			conn = DB.getReadConnection();
+			preparedStatement = conn.prepareStatement(
+					"SELECT Id, EntityType, EntityId, ChangeType, Origin FROM change_log "
+					+ "WHERE Id > ? "
+					+ "ORDER BY Id "
+					+ "LIMIT ?");
+
+			preparedStatement.setLong(1, id);
+			preparedStatement.setInt(2, limit);
+
+			resultSet = preparedStatement.executeQuery();
+
+			List<ChangeLogEntry> entries = new ArrayList<>();
+			while (resultSet.next()) {
+				entries.add(instantiateEntry(resultSet));
+			}
+			return entries;
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	// the ids a poll skipped because their transactions had not committed yet
+	@Override
+	public List<ChangeLogEntry> findByIds(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		try {
+			conn = DB.getReadConnection();
+			preparedStatement = conn.prepareStatement(
+					"SELECT Id, EntityType, EntityId, ChangeType, Origin FROM change_log "
+					+ "WHERE Id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") "
+					+ "ORDER BY Id");
+
+			int index = 1;
+			for (Long id : ids) {
+				preparedStatement.setLong(index++, id);
+			}
+
+			resultSet = preparedStatement.executeQuery();
+
+			List<ChangeLogEntry> entries = new ArrayList<>();
+			while (resultSet.next()) {
+				entries.add(instantiateEntry(resultSet));
+			}
+			return entries;
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public long lastId() {
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		try {
+			conn = DB.getReadConnection();
+			preparedStatement = conn.prepareStatement(
+					"SELECT MAX(Id) FROM change_log");
+
+			resultSet = preparedStatement.executeQuery();
+			resultSet.next();
+			return resultSet.getLong(1);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public int deleteOlderThan(Date cutoff) {
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+
+		try {
+			conn = DB.getConnection();
+			preparedStatement = conn.prepareStatement(
+					"DELETE FROM change_log "
+					+ "WHERE ChangedAt < ?");
+
+			preparedStatement.setTimestamp(1, new Timestamp(cutoff.getTime()));
+
+			return preparedStatement.executeUpdate();
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
+		}
+	}
+
+	private ChangeLogEntry instantiateEntry(ResultSet resultSet) throws SQLException {
+		int entityId = resultSet.getInt("EntityId");
+		return new ChangeLogEntry(resultSet.getLong("Id"), resultSet.getString("EntityType"),
+				resultSet.wasNull() ? null : entityId, resultSet.getString("ChangeType"),
+				resultSet.getString("Origin"));
+	}
+
+}
@@ -4,28 +4,48 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import db.DB;
+import db.DbConcurrencyException;
 import db.DbException;
+import db.DbIntegrityException;
+import db.TransactionManager;
+import model.dao.ChangeLogDao;
+import model.dao.ChangeLogEntry;
 import model.dao.DepartmentDao;
+import model.dao.DepartmentSummary;
 import model.entities.Department;
 
 public class DepartmentDaoJDBC implements DepartmentDao {
 
-	private Connection conn;
+	private ChangeLogDao changeLogDao;
+	private BatchWriter batchWriter;
 
-	public DepartmentDaoJDBC(Connection conn) {
-		this.conn = conn;
+	// every write appends to change_log in the same transaction, other clients pick it up from there
+	public DepartmentDaoJDBC(ChangeLogDao changeLogDao) {
+		this.changeLogDao = changeLogDao;
+		this.batchWriter = new BatchWriter(changeLogDao, ChangeLogEntry.DEPARTMENT);
 	}
 
 	@Override
 	public void insert(Department department) {
+		TransactionManager.run(() -> {
+			insertRows(department);
+			changeLogDao.append(ChangeLogEntry.DEPARTMENT, department.getId(), ChangeLogEntry.INSERTED);
+		});
+	}
+
+	private void insertRows(Department department) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 
 		try {
+			conn = DB.getConnection();
 			preparedStatement = conn.prepareStatement(
 					"INSERT INTO department "
 					+ "(Name) "
@@ -41,44 +61,73 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 				if (resultSet.next()) {
 					int id = resultSet.getInt(1);
 					department.setId(id);
+					department.setVersion(0);
 				}
 				DB.closeResultSet(resultSet);
 			} else {
 				throw new DbException("Unexpected error! No rows affected!");
 			}
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Department department) {
+		TransactionManager.run(() -> {
+			updateRows(department);
+			changeLogDao.append(ChangeLogEntry.DEPARTMENT, department.getId(), ChangeLogEntry.UPDATED);
+		});
+	}
+
+	private void updateRows(Department department) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 
 		try {
+			conn = DB.getConnection();
 			preparedStatement = conn.prepareStatement(
 					"UPDATE department "
-					+ "SET Name = ? "
-					+ "WHERE Id = ?");
+					+ "SET Name = ?, "
+					+ "Version = Version + 1 "
+					+ "WHERE Id = ? AND Version = ?");
 
 			preparedStatement.setString(1, department.getName());
 			preparedStatement.setInt(2, department.getId());
+			preparedStatement.setObject(3, department.getVersion());
 
-			preparedStatement.executeUpdate();
+			int rowsAffected = preparedStatement.executeUpdate();
+			if (rowsAffected == 0) {
+				throw conflict(department.getId());
+			}
+			// a rollback or a deadlock retry must find the entity with the version it was read with
+			Integer version = department.getVersion();
+			TransactionManager.afterCommit(() -> department.setVersion(version + 1));
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		TransactionManager.run(() -> {
+			deleteByIdRows(id);
+			changeLogDao.append(ChangeLogEntry.DEPARTMENT, id, ChangeLogEntry.DELETED);
+		});
+	}
+
+	private void deleteByIdRows(Integer id) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 
 		try {
+			conn = DB.getConnection();
 			preparedStatement = conn.prepareStatement(
 					"DELETE FROM department "
 					+ "WHERE Id = ?");
@@ -90,19 +139,58 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 			if (rowsAffected == 0) {
 				throw new DbException("Department with ID " + id + " doesn't exist! Try again.");
 			}
+		} catch (SQLIntegrityConstraintViolationException exception) {
+			throw new DbIntegrityException("Department with ID " + id + " still has sellers", exception);
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
 		}
 	}
 
+	@Override
+	public void insertAll(Collection<Department> departments) {
+		batchWriter.write(departments,
+				"INSERT INTO department "
+				+ "(Name) "
+				+ "VALUES (?)",
+				Statement.RETURN_GENERATED_KEYS,
+				(preparedStatement, department) -> preparedStatement.setString(1, department.getName()),
+				this::assignGeneratedKeys);
+	}
+
+	@Override
+	public void updateAll(Collection<Department> departments) {
+		batchWriter.write(departments,
+				"UPDATE department "
+				+ "SET Name = ?, "
+				+ "Version = Version + 1 "
+				+ "WHERE Id = ? AND Version = ?",
+				Statement.NO_GENERATED_KEYS, (preparedStatement, department) -> {
+					preparedStatement.setString(1, department.getName());
+					preparedStatement.setInt(2, department.getId());
+					preparedStatement.setObject(3, department.getVersion());
+				}, this::checkUpdated);
+	}
+
+	@Override
+	public void deleteAllById(Collection<Integer> ids) {
+		batchWriter.write(ids,
+				"DELETE FROM department "
+				+ "WHERE Id = ?",
+				Statement.NO_GENERATED_KEYS, (preparedStatement, id) -> preparedStatement.setInt(1, id),
+				this::checkDeleted);
+	}
+
 	@Override
 	public Department findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 		ResultSet resultSet = null;
 
 		try {
+			conn = DB.getReadConnection();
 			preparedStatement = conn.prepareStatement(
 					"SELECT * FROM department "
 					+ "WHERE Id = ?");
@@ -115,24 +203,28 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 				Department department = new Department();
 				department.setId(resultSet.getInt("Id"));
 				department.setName(resultSet.getString("Name"));
+				department.setVersion(resultSet.getInt("Version"));
 				return department;
 			}
 
 			return null;
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
 			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public List<Department> findAll() {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 		ResultSet resultSet = null;
 
 		try {
+			conn = DB.getReadConnection();
 			preparedStatement = conn.prepareStatement(
 					"SELECT * FROM department "
 					+ "ORDER BY Name");
@@ -145,15 +237,96 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 				Department department = new Department();
 				department.setId(resultSet.getInt("Id"));
 				department.setName(resultSet.getString("Name"));
+				department.setVersion(resultSet.getInt("Version"));
 				departments.add(department);
 			}
 
 			return departments;
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
 			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<DepartmentSummary> findAllWithSellerCount() {
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		try {
+			conn = DB.getReadConnection();
+			// one aggregate join instead of a findByDepartment per department
+			preparedStatement = conn.prepareStatement(
+					"SELECT department.*, counts.Sellers "
+					+ "FROM department LEFT JOIN ("
+					+ "SELECT DepartmentId, COUNT(*) AS Sellers FROM seller GROUP BY DepartmentId) counts "
+					+ "ON counts.DepartmentId = department.Id "
+					+ "ORDER BY department.Name");
+
+			resultSet = preparedStatement.executeQuery();
+
+			List<DepartmentSummary> departments = new ArrayList<>();
+
+			while (resultSet.next()) {
+				Department department = new Department();
+				department.setId(resultSet.getInt("Id"));
+				department.setName(resultSet.getString("Name"));
+				department.setVersion(resultSet.getInt("Version"));
+				// NULL for departments without sellers, which getLong reads as 0
+				departments.add(new DepartmentSummary(department, resultSet.getLong("Sellers")));
+			}
+
+			return departments;
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	private void assignGeneratedKeys(PreparedStatement preparedStatement, int[] rowsAffected, List<Department> chunk)
+			throws SQLException {
+		ResultSet resultSet = preparedStatement.getGeneratedKeys();
+		try {
+			int index = 0;
+			while (resultSet.next() && index < chunk.size()) {
+				chunk.get(index).setVersion(0);
+				chunk.get(index++).setId(resultSet.getInt(1));
+			}
+		} finally {
+			DB.closeResultSet(resultSet);
+		}
+	}
+
+	private void checkUpdated(PreparedStatement preparedStatement, int[] rowsAffected, List<Department> chunk) {
+		for (int i = 0; i < rowsAffected.length && i < chunk.size(); i++) {
+			if (rowsAffected[i] == 0) {
+				throw conflict(chunk.get(i).getId());
+			}
+		}
+		// only bump the in-memory versions once every row matched and the transaction committed
+		for (Department department : chunk) {
+			Integer version = department.getVersion();
+			TransactionManager.afterCommit(() -> department.setVersion(version + 1));
+		}
+	}
+
+	private DbConcurrencyException conflict(Integer id) {
+		return new DbConcurrencyException(
+				"Department with ID " + id + " was changed or removed by another user. Reload it and try again.", id);
+	}
+
+	private void checkDeleted(PreparedStatement preparedStatement, int[] rowsAffected, List<Integer> chunk) {
+		for (int i = 0; i < rowsAffected.length && i < chunk.size(); i++) {
+			if (rowsAffected[i] == 0) {
+				throw new DbException("Department with ID " + chunk.get(i) + " doesn't exist! Try again.");
+			}
 		}
 	}
 
@@ -0,0 +1,12 @@
+package model.dao.impl;
+
+import db.EmbeddedDatabase;
+
+// same DAOs as JdbcDaoBackend, against an in-process database instead of a MySQL server
+public class EmbeddedDaoBackend extends JdbcDaoBackend {
+
+	public EmbeddedDaoBackend(String path) {
+		EmbeddedDatabase.start(path);
+	}
+
+}
@@ -0,0 +1,28 @@
+package model.dao.impl;
+
+import model.dao.ChangeLogDao;
+import model.dao.DaoBackend;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+
+// the database configured by dburl in db.properties, MySQL by default
+public class JdbcDaoBackend implements DaoBackend {
+
+	private final ChangeLogDao changeLogDao = new ChangeLogDaoJDBC();
+
+	@Override
+	public SellerDao createSellerDao(DepartmentDao departmentDao) {
+		return new SellerDaoJDBC(departmentDao, changeLogDao);
+	}
+
+	@Override
+	public DepartmentDao createDepartmentDao() {
+		return new DepartmentDaoJDBC(changeLogDao);
+	}
+
+	@Override
+	public ChangeLogDao createChangeLogDao() {
+		return changeLogDao;
+	}
+
+}
@@ -0,0 +1,11 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface RowMapper<T> {
+
+	T mapRow(ResultSet resultSet) throws SQLException;
+
+}
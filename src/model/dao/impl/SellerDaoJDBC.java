@@ -6,29 +6,56 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import db.DB;
+import db.DbConcurrencyException;
 import db.DbException;
+import db.TransactionManager;
+import model.dao.ChangeLogDao;
+import model.dao.ChangeLogEntry;
+import model.dao.DepartmentDao;
+import model.dao.Page;
+import model.dao.SalaryStatistics;
+import model.dao.SellerCursor;
 import model.dao.SellerDao;
+import model.dao.SellerSearchCriteria;
+import model.dao.SortOrder;
 import model.entities.Department;
 import model.entities.Seller;
 
 public class SellerDaoJDBC implements SellerDao {
 
-	private Connection conn;
+	private DepartmentDao departmentDao;
+	private ChangeLogDao changeLogDao;
+	private BatchWriter batchWriter;
 
-	public SellerDaoJDBC(Connection conn) {
-		this.conn = conn;
+	public SellerDaoJDBC(DepartmentDao departmentDao, ChangeLogDao changeLogDao) {
+		this.departmentDao = departmentDao;
+		this.changeLogDao = changeLogDao;
+		this.batchWriter = new BatchWriter(changeLogDao, ChangeLogEntry.SELLER);
 	}
 
 	@Override
 	public void insert(Seller seller) {
+		TransactionManager.run(() -> {
+			insertRows(seller);
+			changeLogDao.append(ChangeLogEntry.SELLER, seller.getId(), ChangeLogEntry.INSERTED);
+		});
+	}
+
+	private void insertRows(Seller seller) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 
 		try {
+			conn = DB.getConnection();
 			preparedStatement = conn.prepareStatement(
 					"INSERT INTO seller "
 					+ "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
@@ -48,31 +75,43 @@ public class SellerDaoJDBC implements SellerDao {
 				if (resultSet.next()) {
 					int id = resultSet.getInt(1);
 					seller.setId(id);
+					seller.setVersion(0);
 				}
 				DB.closeResultSet(resultSet);
 			} else {
 				throw new DbException("Unexpected error! No rows affected!");
 			}
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Seller seller) {
+		TransactionManager.run(() -> {
+			updateRows(seller);
+			changeLogDao.append(ChangeLogEntry.SELLER, seller.getId(), ChangeLogEntry.UPDATED);
+		});
+	}
+
+	private void updateRows(Seller seller) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 
 		try {
+			conn = DB.getConnection();
 			preparedStatement = conn.prepareStatement(
 					"UPDATE seller "
 					+ "SET Name = ?, "
 					+ "Email = ?, "
 					+ "BirthDate = ?, "
 					+ "BaseSalary = ?, "
-					+ "DepartmentId = ? "
-					+ "WHERE Id = ?");
+					+ "DepartmentId = ?, "
+					+ "Version = Version + 1 "
+					+ "WHERE Id = ? AND Version = ?");
 
 			preparedStatement.setString(1, seller.getName());
 			preparedStatement.setString(2, seller.getEmail());
@@ -80,20 +119,37 @@ public class SellerDaoJDBC implements SellerDao {
 			preparedStatement.setDouble(4, seller.getBaseSalary());
 			preparedStatement.setInt(5, seller.getDepartment().getId());
 			preparedStatement.setInt(6, seller.getId());
+			preparedStatement.setObject(7, seller.getVersion());
 
-			preparedStatement.executeUpdate();
+			int rowsAffected = preparedStatement.executeUpdate();
+			if (rowsAffected == 0) {
+				throw conflict(seller.getId());
+			}
+			// a rollback or a deadlock retry must find the entity with the version it was read with
+			Integer version = seller.getVersion();
+			TransactionManager.afterCommit(() -> seller.setVersion(version + 1));
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		TransactionManager.run(() -> {
+			deleteByIdRows(id);
+			changeLogDao.append(ChangeLogEntry.SELLER, id, ChangeLogEntry.DELETED);
+		});
+	}
+
+	private void deleteByIdRows(Integer id) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 
 		try {
+			conn = DB.getConnection();
 			preparedStatement = conn.prepareStatement(
 					"DELETE FROM seller "
 					+ "WHERE Id = ?");
@@ -106,94 +162,167 @@ public class SellerDaoJDBC implements SellerDao {
 				throw new DbException("Seller with ID " + id + " doesn't exist! Try again.");
 			}
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public void insertAll(Collection<Seller> sellers) {
+		batchWriter.write(sellers,
+				"INSERT INTO seller "
+				+ "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
+				+ "VALUES (?, ?, ?, ?, ?)",
+				Statement.RETURN_GENERATED_KEYS, (preparedStatement, seller) -> {
+					preparedStatement.setString(1, seller.getName());
+					preparedStatement.setString(2, seller.getEmail());
+					preparedStatement.setDate(3, new java.sql.Date(seller.getBirthDate().getTime()));
+					preparedStatement.setDouble(4, seller.getBaseSalary());
+					preparedStatement.setInt(5, seller.getDepartment().getId());
+				}, this::assignGeneratedKeys);
+	}
+
+	@Override
+	public void updateAll(Collection<Seller> sellers) {
+		batchWriter.write(sellers,
+				"UPDATE seller "
+				+ "SET Name = ?, "
+				+ "Email = ?, "
+				+ "BirthDate = ?, "
+				+ "BaseSalary = ?, "
+				+ "DepartmentId = ?, "
+				+ "Version = Version + 1 "
+				+ "WHERE Id = ? AND Version = ?",
+				Statement.NO_GENERATED_KEYS, (preparedStatement, seller) -> {
+					preparedStatement.setString(1, seller.getName());
+					preparedStatement.setString(2, seller.getEmail());
+					preparedStatement.setDate(3, new java.sql.Date(seller.getBirthDate().getTime()));
+					preparedStatement.setDouble(4, seller.getBaseSalary());
+					preparedStatement.setInt(5, seller.getDepartment().getId());
+					preparedStatement.setInt(6, seller.getId());
+					preparedStatement.setObject(7, seller.getVersion());
+				}, this::checkUpdated);
+	}
+
+	@Override
+	public void deleteAllById(Collection<Integer> ids) {
+		batchWriter.write(ids,
+				"DELETE FROM seller "
+				+ "WHERE Id = ?",
+				Statement.NO_GENERATED_KEYS, (preparedStatement, id) -> preparedStatement.setInt(1, id),
+				this::checkDeleted);
+	}
+
+	@Override
+	public int deleteByDepartment(Integer departmentId) {
+		return TransactionManager.execute(() -> {
+			int deleted = deleteByDepartmentRows(departmentId);
+			if (deleted > 0) {
+				changeLogDao.append(ChangeLogEntry.SELLER, null, ChangeLogEntry.RELOADED);
+			}
+			return deleted;
+		});
+	}
+
+	private int deleteByDepartmentRows(Integer departmentId) {
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+
+		try {
+			conn = DB.getConnection();
+			preparedStatement = conn.prepareStatement(
+					"DELETE FROM seller "
+					+ "WHERE DepartmentId = ?");
+
+			preparedStatement.setInt(1, departmentId);
+
+			return preparedStatement.executeUpdate();
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public Seller findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 		ResultSet resultSet = null;
 
 		try {
+			conn = DB.getReadConnection();
 			preparedStatement = conn.prepareStatement(
-					"SELECT seller.*, department.Name as DepName "
-					+ "FROM seller "
-					+ "INNER JOIN department "
-					+ "ON seller.DepartmentId = department.Id "
-					+ "WHERE seller.Id = ?");
+					"SELECT * FROM seller "
+					+ "WHERE Id = ?");
 
 			preparedStatement.setInt(1, id);
 			
 			resultSet = preparedStatement.executeQuery();
 
 			if (resultSet.next()) {
-				Department department = instantiateDepartment(resultSet);
-				Seller seller = instantiateSeller(resultSet, department);
-				return seller;
+				return new SellerRowMapper(resultSet, departmentDao).mapRow(resultSet);
 			}
 
 			return null;
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
 			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public List<Seller> findAll() {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 		ResultSet resultSet = null;
 
 		try {
+			conn = DB.getReadConnection();
 			preparedStatement = conn.prepareStatement(
-					"SELECT seller.*, department.Name as DepName "
-					+ "FROM seller "
-					+ "INNER JOIN department "
-					+ "ON seller.DepartmentId = department.Id "
+					"SELECT * FROM seller "
 					+ "ORDER BY Name");
 
 			resultSet = preparedStatement.executeQuery();
 
 			List<Seller> sellers = new ArrayList<>();
-			Map<Integer, Department> departments = new HashMap<>();
+			SellerRowMapper rowMapper = new SellerRowMapper(resultSet, departmentDao);
 
 			while (resultSet.next()) {
-				Department dep = departments.get(resultSet.getInt("DepartmentId"));
-
-				if (dep == null) {
-					dep = instantiateDepartment(resultSet);
-					departments.put(resultSet.getInt("DepartmentId"), dep);
-				}
-
-				Seller seller = instantiateSeller(resultSet, dep);
-				sellers.add(seller);
+				sellers.add(rowMapper.mapRow(resultSet));
 			}
 
 			return sellers;
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
 			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
 		}
 	}
 
+	@Override
+	public long count() {
+		return count(new SellerSearchCriteria());
+	}
+
 	@Override
 	public List<Seller> findByDepartment(Department department) {
+		Connection conn = null;
 		PreparedStatement preparedStatement = null;
 		ResultSet resultSet = null;
 
 		try {
+			conn = DB.getReadConnection();
 			preparedStatement = conn.prepareStatement(
-					"SELECT seller.*, department.Name as DepName "
-					+ "FROM seller "
-					+ "INNER JOIN department "
-					+ "ON seller.DepartmentId = department.Id "
+					"SELECT * FROM seller "
 					+ "WHERE DepartmentId = ? "
 					+ "ORDER BY Name");
 
@@ -202,45 +331,347 @@ public class SellerDaoJDBC implements SellerDao {
 			resultSet = preparedStatement.executeQuery();
 
 			List<Seller> sellers = new ArrayList<>();
-			Map<Integer, Department> departments = new HashMap<>();
+			SellerRowMapper rowMapper = new SellerRowMapper(resultSet, departmentDao);
 
 			while (resultSet.next()) {
-				Department dep = departments.get(resultSet.getInt("DepartmentId"));
+				sellers.add(rowMapper.mapRow(resultSet));
+			}
+
+			return sellers;
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public Stream<Seller> stream() {
+		// Integer.MIN_VALUE makes MySQL Connector/J stream rows one at a time; H2 and others reject negative sizes
+		boolean mysql = DB.getProperties().getProperty("dburl", "").startsWith("jdbc:mysql:");
+		return stream(DB.getIntProperty("stream.fetchSize", mysql ? Integer.MIN_VALUE : 1000));
+	}
 
-				if (dep == null) {
-					dep = instantiateDepartment(resultSet);
-					departments.put(resultSet.getInt("DepartmentId"), dep);
+	@Override
+	public Stream<Seller> stream(int fetchSize) {
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		SellerRowMapper rowMapper;
+
+		try {
+			conn = DB.getReadConnection();
+			preparedStatement = conn.prepareStatement(
+					"SELECT * FROM seller "
+					+ "ORDER BY Name",
+					ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+
+			preparedStatement.setFetchSize(fetchSize);
+
+			resultSet = preparedStatement.executeQuery();
+			rowMapper = new SellerRowMapper(resultSet, departmentDao);
+		} catch (SQLException exception) {
+			DB.closeResultSet(resultSet);
+			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
+			throw new DbException(exception.getMessage(), exception);
+		}
+
+		Connection streamConn = conn;
+		PreparedStatement streamStatement = preparedStatement;
+		ResultSet streamResultSet = resultSet;
+
+		Spliterator<Seller> spliterator = new Spliterators.AbstractSpliterator<Seller>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+
+			@Override
+			public boolean tryAdvance(Consumer<? super Seller> action) {
+				try {
+					if (!streamResultSet.next()) {
+						return false;
+					}
+					action.accept(rowMapper.mapRow(streamResultSet));
+					return true;
+				} catch (SQLException exception) {
+					throw new DbException(exception.getMessage(), exception);
 				}
+			}
+		};
+
+		return StreamSupport.stream(spliterator, false).onClose(() -> {
+			try {
+				DB.closeResultSet(streamResultSet);
+				DB.closeStatement(streamStatement);
+			} finally {
+				DB.closeConnection(streamConn);
+			}
+		});
+	}
+
+	@Override
+	public Page<Seller> findPage(SellerCursor cursor, int pageSize, SortOrder sortOrder) {
+		return queryPage(new SellerSearchCriteria(), cursor, pageSize, sortOrder);
+	}
+
+	@Override
+	public Page<Seller> search(SellerSearchCriteria criteria, SellerCursor cursor, int pageSize) {
+		return queryPage(criteria, cursor, pageSize, SortOrder.ASC);
+	}
+
+	@Override
+	public List<Seller> search(SellerSearchCriteria criteria, int offset, int limit) {
+		List<String> conditions = new ArrayList<>();
+		List<Object> parameters = new ArrayList<>();
+		addCriteria(criteria, conditions, parameters);
+		parameters.add(limit);
+		parameters.add(offset);
+
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		try {
+			conn = DB.getReadConnection();
+			// OFFSET scans the skipped rows, callers use the keyset search whenever they know the previous row
+			preparedStatement = conn.prepareStatement(
+					"SELECT * FROM seller "
+					+ where(conditions)
+					+ "ORDER BY Name, Id "
+					+ "LIMIT ? OFFSET ?");
+
+			for (int i = 0; i < parameters.size(); i++) {
+				preparedStatement.setObject(i + 1, parameters.get(i));
+			}
+
+			resultSet = preparedStatement.executeQuery();
 
-				Seller seller = instantiateSeller(resultSet, dep);
-				sellers.add(seller);
+			List<Seller> sellers = new ArrayList<>(limit);
+			SellerRowMapper rowMapper = new SellerRowMapper(resultSet, departmentDao);
+
+			while (resultSet.next()) {
+				sellers.add(rowMapper.mapRow(resultSet));
 			}
 
 			return sellers;
 		} catch (SQLException exception) {
-			throw new DbException(exception.getMessage());
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public long count(SellerSearchCriteria criteria) {
+		List<String> conditions = new ArrayList<>();
+		List<Object> parameters = new ArrayList<>();
+		addCriteria(criteria, conditions, parameters);
+
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		try {
+			conn = DB.getReadConnection();
+			preparedStatement = conn.prepareStatement(
+					"SELECT COUNT(*) FROM seller "
+					+ where(conditions));
+
+			for (int i = 0; i < parameters.size(); i++) {
+				preparedStatement.setObject(i + 1, parameters.get(i));
+			}
+
+			resultSet = preparedStatement.executeQuery();
+			resultSet.next();
+			return resultSet.getLong(1);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<SalaryStatistics> salaryStatisticsByDepartment() {
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		try {
+			conn = DB.getReadConnection();
+			// the sellers are aggregated by the database, only one row per department comes back
+			preparedStatement = conn.prepareStatement(
+					"SELECT department.Id, department.Name, stats.Headcount, stats.Total, stats.Average, "
+					+ "stats.Minimum, stats.Maximum "
+					+ "FROM department LEFT JOIN ("
+					+ "SELECT DepartmentId, COUNT(*) AS Headcount, SUM(BaseSalary) AS Total, "
+					+ "AVG(BaseSalary) AS Average, MIN(BaseSalary) AS Minimum, MAX(BaseSalary) AS Maximum "
+					+ "FROM seller GROUP BY DepartmentId) stats "
+					+ "ON stats.DepartmentId = department.Id "
+					+ "ORDER BY department.Name, department.Id");
+
+			resultSet = preparedStatement.executeQuery();
+			List<SalaryStatistics> statistics = new ArrayList<>();
+			while (resultSet.next()) {
+				// getLong/getDouble read the NULLs of departments without sellers as 0
+				statistics.add(new SalaryStatistics(resultSet.getInt(1), resultSet.getString(2),
+						resultSet.getLong(3), resultSet.getDouble(4), resultSet.getDouble(5),
+						resultSet.getDouble(6), resultSet.getDouble(7)));
+			}
+			return statistics;
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(preparedStatement);
+			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
+		}
+	}
+
+	private Page<Seller> queryPage(SellerSearchCriteria criteria, SellerCursor cursor, int pageSize,
+			SortOrder sortOrder) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive");
+		}
+		String comparison = sortOrder == SortOrder.DESC ? "<" : ">";
+		String direction = sortOrder == SortOrder.DESC ? "DESC" : "ASC";
+
+		List<String> conditions = new ArrayList<>();
+		List<Object> parameters = new ArrayList<>();
+		addCriteria(criteria, conditions, parameters);
+		if (cursor != null) {
+			conditions.add("(Name " + comparison + " ? OR (Name = ? AND Id " + comparison + " ?))");
+			parameters.add(cursor.getName());
+			parameters.add(cursor.getName());
+			parameters.add(cursor.getId());
+		}
+		// one extra row tells whether another page exists
+		parameters.add(pageSize + 1);
+
+		Connection conn = null;
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+
+		try {
+			conn = DB.getReadConnection();
+			preparedStatement = conn.prepareStatement(
+					"SELECT * FROM seller "
+					+ where(conditions)
+					+ "ORDER BY Name " + direction + ", Id " + direction + " "
+					+ "LIMIT ?");
+
+			for (int i = 0; i < parameters.size(); i++) {
+				preparedStatement.setObject(i + 1, parameters.get(i));
+			}
+
+			resultSet = preparedStatement.executeQuery();
+
+			List<Seller> sellers = new ArrayList<>(pageSize);
+			SellerRowMapper rowMapper = new SellerRowMapper(resultSet, departmentDao);
+			boolean hasNext = false;
+
+			while (resultSet.next()) {
+				if (sellers.size() == pageSize) {
+					hasNext = true;
+					break;
+				}
+				sellers.add(rowMapper.mapRow(resultSet));
+			}
+
+			return new Page<>(sellers, hasNext);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
 		} finally {
 			DB.closeStatement(preparedStatement);
 			DB.closeResultSet(resultSet);
+			DB.closeConnection(conn);
 		}
 	}
-	
-	private Seller instantiateSeller(ResultSet resultSet, Department department) throws SQLException {
-		Seller seller = new Seller();
-		seller.setId(resultSet.getInt("Id"));
-		seller.setName(resultSet.getString("Name"));
-		seller.setEmail(resultSet.getString("Email"));
-		seller.setBirthDate(new java.util.Date(resultSet.getDate("BirthDate").getTime()));
-		seller.setBaseSalary(resultSet.getDouble("BaseSalary"));
-		seller.setDepartment(department);
-		return seller;
+
+	private static void addCriteria(SellerSearchCriteria criteria, List<String> conditions, List<Object> parameters) {
+		if (criteria.getNamePrefix() != null && !criteria.getNamePrefix().isEmpty()) {
+			conditions.add("Name LIKE ?");
+			parameters.add(likePrefix(criteria.getNamePrefix()));
+		}
+		if (criteria.getEmailPrefix() != null && !criteria.getEmailPrefix().isEmpty()) {
+			conditions.add("Email LIKE ?");
+			parameters.add(likePrefix(criteria.getEmailPrefix()));
+		}
+		if (criteria.getDepartmentId() != null) {
+			conditions.add("DepartmentId = ?");
+			parameters.add(criteria.getDepartmentId());
+		}
+		if (criteria.getMinBaseSalary() != null) {
+			conditions.add("BaseSalary >= ?");
+			parameters.add(criteria.getMinBaseSalary());
+		}
+		if (criteria.getMaxBaseSalary() != null) {
+			conditions.add("BaseSalary <= ?");
+			parameters.add(criteria.getMaxBaseSalary());
+		}
+		if (criteria.getBirthDateFrom() != null) {
+			conditions.add("BirthDate >= ?");
+			parameters.add(new java.sql.Date(criteria.getBirthDateFrom().getTime()));
+		}
+		if (criteria.getBirthDateTo() != null) {
+			conditions.add("BirthDate <= ?");
+			parameters.add(new java.sql.Date(criteria.getBirthDateTo().getTime()));
+		}
+	}
+
+	private static String where(List<String> conditions) {
+		return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
+	}
+
+	private static String likePrefix(String prefix) {
+		return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
+
+	private void assignGeneratedKeys(PreparedStatement preparedStatement, int[] rowsAffected, List<Seller> chunk)
+			throws SQLException {
+		ResultSet resultSet = preparedStatement.getGeneratedKeys();
+		try {
+			int index = 0;
+			while (resultSet.next() && index < chunk.size()) {
+				chunk.get(index).setVersion(0);
+				chunk.get(index++).setId(resultSet.getInt(1));
+			}
+		} finally {
+			DB.closeResultSet(resultSet);
+		}
 	}
 
-	private Department instantiateDepartment(ResultSet resultSet) throws SQLException {
-		Department department = new Department();
-		department.setId(resultSet.getInt("DepartmentId"));
-		department.setName(resultSet.getString("DepName"));
-		return department;
+	private void checkUpdated(PreparedStatement preparedStatement, int[] rowsAffected, List<Seller> chunk) {
+		for (int i = 0; i < rowsAffected.length && i < chunk.size(); i++) {
+			if (rowsAffected[i] == 0) {
+				throw conflict(chunk.get(i).getId());
+			}
+		}
+		// only bump the in-memory versions once every row matched and the transaction committed
+		for (Seller seller : chunk) {
+			Integer version = seller.getVersion();
+			TransactionManager.afterCommit(() -> seller.setVersion(version + 1));
+		}
+	}
+
+	private DbConcurrencyException conflict(Integer id) {
+		return new DbConcurrencyException(
+				"Seller with ID " + id + " was changed or removed by another user. Reload it and try again.", id);
+	}
+
+	private void checkDeleted(PreparedStatement preparedStatement, int[] rowsAffected, List<Integer> chunk) {
+		for (int i = 0; i < rowsAffected.length && i < chunk.size(); i++) {
+			if (rowsAffected[i] == 0) {
+				throw new DbException("Seller with ID " + chunk.get(i) + " doesn't exist! Try again.");
+			}
+		}
 	}
 
 }
@@ -0,0 +1,69 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.dao.DepartmentDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+public class SellerRowMapper implements RowMapper<Seller> {
+
+	private final DepartmentDao departmentDao;
+	private final Map<Integer, Department> departments = new HashMap<>();
+
+	// column positions are resolved once per result set instead of once per row
+	private final int idColumn;
+	private final int nameColumn;
+	private final int emailColumn;
+	private final int birthDateColumn;
+	private final int baseSalaryColumn;
+	private final int departmentIdColumn;
+	private final int versionColumn;
+
+	private Department lastDepartment;
+
+	public SellerRowMapper(ResultSet resultSet, DepartmentDao departmentDao) throws SQLException {
+		this.departmentDao = departmentDao;
+		this.idColumn = resultSet.findColumn("Id");
+		this.nameColumn = resultSet.findColumn("Name");
+		this.emailColumn = resultSet.findColumn("Email");
+		this.birthDateColumn = resultSet.findColumn("BirthDate");
+		this.baseSalaryColumn = resultSet.findColumn("BaseSalary");
+		this.departmentIdColumn = resultSet.findColumn("DepartmentId");
+		this.versionColumn = resultSet.findColumn("Version");
+	}
+
+	@Override
+	public Seller mapRow(ResultSet resultSet) throws SQLException {
+		java.sql.Date birthDate = resultSet.getDate(birthDateColumn);
+		Seller seller = new Seller(
+				resultSet.getInt(idColumn),
+				resultSet.getString(nameColumn),
+				resultSet.getString(emailColumn),
+				// java.sql.Date does not support toInstant(), which the form relies on
+				birthDate == null ? null : new Date(birthDate.getTime()),
+				resultSet.getDouble(baseSalaryColumn),
+				department(resultSet.getInt(departmentIdColumn)));
+		seller.setVersion(resultSet.getInt(versionColumn));
+		return seller;
+	}
+
+	private Department department(int id) {
+		// consecutive rows often share a department, so skip the map lookup in that case
+		if (lastDepartment != null && lastDepartment.getId() == id) {
+			return lastDepartment;
+		}
+		Department department = departments.get(id);
+		if (department == null) {
+			department = departmentDao.findById(id);
+			departments.put(id, department);
+		}
+		lastDepartment = department;
+		return department;
+	}
+
+}
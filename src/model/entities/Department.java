@@ -9,6 +9,7 @@ public class Department implements Serializable {
 
 	private Integer id;
 	private String name;
+	private Integer version;
 
 	public Department() {
 	}
@@ -34,6 +35,14 @@ public class Department implements Serializable {
 		this.name = name;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
@@ -51,7 +60,7 @@ public class Department implements Serializable {
 
 	@Override
 	public String toString() {
-		return "Department{" + "id=" + id + ", name='" + name + '\'' + '}';
+		return "Department{" + "id=" + id + ", name='" + name + '\'' + ", version=" + version + '}';
 	}
 
 }
@@ -15,6 +15,7 @@ public class Seller implements Serializable {
 	private Double baseSalary;
 
 	private Department department;
+	private Integer version;
 
 	public Seller() {
 	}
@@ -76,6 +77,14 @@ public class Seller implements Serializable {
 		this.department = department;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
@@ -94,7 +103,7 @@ public class Seller implements Serializable {
 	@Override
 	public String toString() {
 		return "Seller{" + "id=" + id + ", name='" + name + '\'' + ", email='" + email + '\'' + ", birthDate="
-				+ birthDate + ", baseSalary=" + baseSalary + ", department=" + department + '}';
+				+ birthDate + ", baseSalary=" + baseSalary + ", department=" + department + ", version=" + version + '}';
 	}
 
 }
@@ -0,0 +1,189 @@
+package model.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import db.DB;
+import model.dao.ChangeLogDao;
+import model.dao.ChangeLogEntry;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+// polls change_log for rows written by other clients and replays them through the service notifiers
+public class ChangeFeed {
+
+	// more changes than this for one entity in a single poll are announced as one reload
+	private static final int MAX_EVENTS_PER_POLL = 50;
+	// gaps left by rolled back transactions are given up on after this long
+	private static final long GAP_TIMEOUT_MILLIS = 30_000;
+	private static final int MAX_TRACKED_GAPS = 1000;
+	private static final long PURGE_INTERVAL_MILLIS = 3_600_000;
+
+	private static ScheduledExecutorService poller = null;
+
+	private final ChangeLogDao changeLogDao = DaoFactory.createChangeLogDao();
+	private final SellerDao sellerDao = DaoFactory.createSellerDao();
+	private final DepartmentDao departmentDao = DaoFactory.createDepartmentDao();
+	private final int batchLimit = DB.getIntProperty("changes.batchLimit", 500);
+	private final int retentionHours = DB.getIntProperty("changes.retentionHours", 24);
+
+	private long highWaterMark;
+	// ids below the mark that were not there when it moved past them: their transactions had not committed yet
+	private final TreeMap<Long, Long> gaps = new TreeMap<>();
+	private long lastPurge = System.currentTimeMillis();
+
+	ChangeFeed() {
+		// only changes made from now on are interesting, the views load the current state themselves
+		highWaterMark = changeLogDao.lastId();
+	}
+
+	// changes.pollMillis=0 turns the feed off
+	public static synchronized void start() {
+		int pollMillis = DB.getIntProperty("changes.pollMillis", 2000);
+		if (poller != null || pollMillis <= 0) {
+			return;
+		}
+		ChangeFeed feed = new ChangeFeed();
+		poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "change-feed-poller");
+			thread.setDaemon(true);
+			return thread;
+		});
+		poller.scheduleWithFixedDelay(feed::pollSafely, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public static synchronized void stop() {
+		if (poller != null) {
+			poller.shutdownNow();
+			poller = null;
+		}
+	}
+
+	private void pollSafely() {
+		try {
+			while (poll() == batchLimit) {
+				// a full batch means there is more waiting
+			}
+			purge();
+		} catch (RuntimeException exception) {
+			// the database may be briefly unreachable; the mark did not move, so the next poll catches up
+			System.err.println("Change feed poll failed: " + exception.getMessage());
+		}
+	}
+
+	// gaps are looked up by id and new rows paged from the mark, so a long gap never holds the feed back
+	int poll() {
+		long now = System.currentTimeMillis();
+		List<ChangeLogEntry> fresh = new ArrayList<>();
+		if (!gaps.isEmpty()) {
+			for (ChangeLogEntry entry : changeLogDao.findByIds(new ArrayList<>(gaps.keySet()))) {
+				gaps.remove(entry.getId());
+				fresh.add(entry);
+			}
+		}
+
+		List<ChangeLogEntry> entries = changeLogDao.findAfter(highWaterMark, batchLimit);
+		for (ChangeLogEntry entry : entries) {
+			for (long missing = highWaterMark + 1; missing < entry.getId(); missing++) {
+				if (gaps.size() >= MAX_TRACKED_GAPS) {
+					break;
+				}
+				gaps.put(missing, now);
+			}
+			highWaterMark = entry.getId();
+			fresh.add(entry);
+		}
+		expireGaps(now);
+		deliver(fresh);
+		return entries.size();
+	}
+
+	private void expireGaps(long now) {
+		Iterator<Map.Entry<Long, Long>> iterator = gaps.entrySet().iterator();
+		while (iterator.hasNext()) {
+			if (now - iterator.next().getValue() > GAP_TIMEOUT_MILLIS) {
+				iterator.remove();
+			}
+		}
+	}
+
+	private void deliver(List<ChangeLogEntry> entries) {
+		List<ChangeLogEntry> sellers = new ArrayList<>();
+		List<ChangeLogEntry> departments = new ArrayList<>();
+		for (ChangeLogEntry entry : entries) {
+			// this client's own writes were announced when they committed
+			if (entry.isLocal()) {
+				continue;
+			}
+			if (ChangeLogEntry.DEPARTMENT.equals(entry.getEntityType())) {
+				departments.add(entry);
+			} else if (ChangeLogEntry.SELLER.equals(entry.getEntityType())) {
+				sellers.add(entry);
+			}
+		}
+
+		if (!departments.isEmpty()) {
+			DaoFactory.invalidateCaches();
+			for (EntityChangeEvent<Department> event : toEvents(departments, departmentDao::findById)) {
+				DepartmentService.publish(event);
+			}
+		}
+		if (!sellers.isEmpty()) {
+			for (EntityChangeEvent<Seller> event : toEvents(sellers, sellerDao::findById)) {
+				SellerService.publish(event);
+			}
+		}
+	}
+
+	private static <T> List<EntityChangeEvent<T>> toEvents(List<ChangeLogEntry> entries,
+			Function<Integer, T> finder) {
+		List<EntityChangeEvent<T>> events = new ArrayList<>();
+		boolean reload = entries.size() > MAX_EVENTS_PER_POLL;
+		for (ChangeLogEntry entry : entries) {
+			if (ChangeLogEntry.RELOADED.equals(entry.getChangeType()) || entry.getEntityId() == null) {
+				reload = true;
+			}
+		}
+		if (reload) {
+			events.add(EntityChangeEvent.reloaded());
+			return events;
+		}
+
+		for (ChangeLogEntry entry : entries) {
+			Integer id = entry.getEntityId();
+			if (ChangeLogEntry.DELETED.equals(entry.getChangeType())) {
+				events.add(EntityChangeEvent.deleted(id, null));
+				continue;
+			}
+			// the row is read as it is now; if it is gone already a later entry says so
+			T entity = finder.apply(id);
+			if (entity == null) {
+				continue;
+			}
+			events.add(ChangeLogEntry.INSERTED.equals(entry.getChangeType()) ? EntityChangeEvent.inserted(id, entity)
+					: EntityChangeEvent.updated(id, entity));
+		}
+		return events;
+	}
+
+	private void purge() {
+		long now = System.currentTimeMillis();
+		if (retentionHours <= 0 || now - lastPurge < PURGE_INTERVAL_MILLIS) {
+			return;
+		}
+		lastPurge = now;
+		changeLogDao.deleteOlderThan(new Date(now - TimeUnit.HOURS.toMillis(retentionHours)));
+	}
+
+}
@@ -0,0 +1,32 @@
+package model.services;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ChangeNotifier<T> {
+
+	// views are replaced without any unsubscribe hook, so listeners are only weakly held
+	private final List<WeakReference<EntityChangeListener<T>>> listeners = new CopyOnWriteArrayList<>();
+
+	public void subscribe(EntityChangeListener<T> listener) {
+		unsubscribe(listener);
+		listeners.add(new WeakReference<>(listener));
+	}
+
+	public void unsubscribe(EntityChangeListener<T> listener) {
+		listeners.removeIf(reference -> reference.get() == null || reference.get() == listener);
+	}
+
+	public void fire(EntityChangeEvent<T> event) {
+		for (WeakReference<EntityChangeListener<T>> reference : listeners) {
+			EntityChangeListener<T> listener = reference.get();
+			if (listener == null) {
+				listeners.remove(reference);
+			} else {
+				listener.onEntityChanged(event);
+			}
+		}
+	}
+
+}
@@ -1,29 +1,115 @@
 package model.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import db.TransactionManager;
 import model.dao.DaoFactory;
 import model.dao.DepartmentDao;
+import model.dao.DepartmentSummary;
+import model.dao.SellerDao;
 import model.entities.Department;
 
 public class DepartmentService {
 
+	// shared by every instance, the views create their own services
+	private static final ChangeNotifier<Department> changeNotifier = new ChangeNotifier<>();
+
 	private DepartmentDao departmentDao = DaoFactory.createDepartmentDao();
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
 
 	public List<Department> findAll() {
 		return departmentDao.findAll();
 	}
 
+	public List<DepartmentSummary> findAllWithSellerCount() {
+		return departmentDao.findAllWithSellerCount();
+	}
+
 	public void saveOrUpdate(Department department) {
 		if (department.getId() == null) {
 			departmentDao.insert(department);
+			fireAfterCommit(EntityChangeEvent.inserted(department.getId(), department));
 		} else {
 			departmentDao.update(department);
+			fireAfterCommit(EntityChangeEvent.updated(department.getId(), department));
 		}
 	}
 
+	public void saveAll(Collection<Department> departments) {
+		List<Department> toInsert = new ArrayList<>();
+		List<Department> toUpdate = new ArrayList<>();
+		for (Department department : departments) {
+			if (department.getId() == null) {
+				toInsert.add(department);
+			} else {
+				toUpdate.add(department);
+			}
+		}
+		TransactionManager.run(() -> {
+			departmentDao.insertAll(toInsert);
+			departmentDao.updateAll(toUpdate);
+		});
+		fireAfterCommit(EntityChangeEvent.reloaded());
+	}
+
 	public void remove(Department department) {
 		departmentDao.deleteById(department.getId());
+		fireAfterCommit(EntityChangeEvent.deleted(department.getId(), department));
+	}
+
+	// the sellers go first, in the same transaction, so the foreign key never sees an orphan
+	public void removeWithSellers(Department department) {
+		TransactionManager.run(() -> {
+			sellerDao.deleteByDepartment(department.getId());
+			departmentDao.deleteById(department.getId());
+		});
+		TransactionManager.afterCommit(() -> SellerService.publish(EntityChangeEvent.reloaded()));
+		fireAfterCommit(EntityChangeEvent.deleted(department.getId(), department));
+	}
+
+	static void publish(EntityChangeEvent<Department> event) {
+		changeNotifier.fire(event);
+	}
+
+	// for listeners that live in this package without a service instance of their own
+	static void subscribeToChanges(EntityChangeListener<Department> listener) {
+		changeNotifier.subscribe(listener);
+	}
+
+	// inside an outer transaction the listeners only hear about the write once it commits
+	private static void fireAfterCommit(EntityChangeEvent<Department> event) {
+		TransactionManager.afterCommit(() -> changeNotifier.fire(event));
+	}
+
+	public void subscribe(EntityChangeListener<Department> listener) {
+		changeNotifier.subscribe(listener);
+	}
+
+	public void unsubscribe(EntityChangeListener<Department> listener) {
+		changeNotifier.unsubscribe(listener);
+	}
+
+	public CompletableFuture<List<Department>> findAllAsync() {
+		return CompletableFuture.supplyAsync(this::findAll, ServiceExecutor.get());
+	}
+
+	public CompletableFuture<List<DepartmentSummary>> findAllWithSellerCountAsync() {
+		return CompletableFuture.supplyAsync(this::findAllWithSellerCount, ServiceExecutor.get());
+	}
+
+	public CompletableFuture<Void> saveOrUpdateAsync(Department department) {
+		return CompletableFuture.runAsync(() -> saveOrUpdate(department), ServiceExecutor.get());
+	}
+
+	public CompletableFuture<Void> removeAsync(Department department) {
+		return CompletableFuture.runAsync(() -> remove(department), ServiceExecutor.get());
+	}
+
+	public CompletableFuture<Void> removeWithSellersAsync(Department department) {
+		return CompletableFuture.runAsync(() -> removeWithSellers(department), ServiceExecutor.get());
 	}
 
 }
@@ -0,0 +1,65 @@
+package model.services;
+
+public class EntityChangeEvent<T> {
+
+	public enum Type {
+		INSERTED, UPDATED, DELETED, RELOADED
+	}
+
+	private final Type type;
+	private final Integer id;
+	private final T entity;
+	private final T previous;
+
+	private EntityChangeEvent(Type type, Integer id, T entity, T previous) {
+		this.type = type;
+		this.id = id;
+		this.entity = entity;
+		this.previous = previous;
+	}
+
+	public static <T> EntityChangeEvent<T> inserted(Integer id, T entity) {
+		return new EntityChangeEvent<>(Type.INSERTED, id, entity, null);
+	}
+
+	public static <T> EntityChangeEvent<T> updated(Integer id, T entity) {
+		return new EntityChangeEvent<>(Type.UPDATED, id, entity, null);
+	}
+
+	// previous is the row as it was before this update, for listeners that track where it moved from
+	public static <T> EntityChangeEvent<T> updated(Integer id, T entity, T previous) {
+		return new EntityChangeEvent<>(Type.UPDATED, id, entity, previous);
+	}
+
+	public static <T> EntityChangeEvent<T> deleted(Integer id, T entity) {
+		return new EntityChangeEvent<>(Type.DELETED, id, entity, null);
+	}
+
+	// too many rows changed at once to describe them one by one, listeners should reload
+	public static <T> EntityChangeEvent<T> reloaded() {
+		return new EntityChangeEvent<>(Type.RELOADED, null, null, null);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	public T getEntity() {
+		return entity;
+	}
+
+	// null when unknown, as for changes made by other clients
+	public T getPrevious() {
+		return previous;
+	}
+
+	@Override
+	public String toString() {
+		return "EntityChangeEvent{" + "type=" + type + ", id=" + id + ", entity=" + entity + ", previous=" + previous + '}';
+	}
+
+}
@@ -0,0 +1,7 @@
+package model.services;
+
+public interface EntityChangeListener<T> {
+
+	void onEntityChanged(EntityChangeEvent<T> event);
+
+}
@@ -0,0 +1,47 @@
+package model.services;
+
+import java.nio.file.Path;
+
+public class ImportResult {
+
+	private final long imported;
+	private final long rejected;
+	private final long elapsedMillis;
+	private final Path rejectFile;
+
+	public ImportResult(long imported, long rejected, long elapsedMillis, Path rejectFile) {
+		this.imported = imported;
+		this.rejected = rejected;
+		this.elapsedMillis = elapsedMillis;
+		this.rejectFile = rejectFile;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	// null when every row was imported
+	public Path getRejectFile() {
+		return rejectFile;
+	}
+
+	public double getRowsPerSecond() {
+		return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportResult{" + "imported=" + imported + ", rejected=" + rejected + ", elapsedMillis="
+				+ elapsedMillis + ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) + ", rejectFile="
+				+ rejectFile + '}';
+	}
+
+}
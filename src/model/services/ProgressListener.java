@@ -0,0 +1,8 @@
+package model.services;
+
+@FunctionalInterface
+public interface ProgressListener {
+
+	void onProgress(long done, long total);
+
+}
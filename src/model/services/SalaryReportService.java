@@ -0,0 +1,58 @@
+package model.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.dao.DaoFactory;
+import model.dao.SalaryStatistics;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+public class SalaryReportService {
+
+	// the report only changes when a seller or a department is written, so it is kept until then
+	private static volatile List<SalaryStatistics> cached;
+	private static final AtomicLong generation = new AtomicLong();
+
+	// the notifiers hold listeners weakly, these fields keep them alive for the life of the class
+	private static final EntityChangeListener<Seller> sellerListener = event -> invalidate();
+	private static final EntityChangeListener<Department> departmentListener = event -> invalidate();
+
+	static {
+		SellerService.subscribeToChanges(sellerListener);
+		DepartmentService.subscribeToChanges(departmentListener);
+	}
+
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
+
+	public List<SalaryStatistics> salaryByDepartment() {
+		List<SalaryStatistics> statistics = cached;
+		if (statistics != null) {
+			return statistics;
+		}
+		long loadedAt = generation.get();
+		statistics = Collections.unmodifiableList(sellerDao.salaryStatisticsByDepartment());
+		// a write that committed while the query ran may not be in the result, so it is not kept
+		synchronized (SalaryReportService.class) {
+			if (generation.get() == loadedAt) {
+				cached = statistics;
+			}
+		}
+		return statistics;
+	}
+
+	public CompletableFuture<List<SalaryStatistics>> salaryByDepartmentAsync() {
+		return CompletableFuture.supplyAsync(this::salaryByDepartment, ServiceExecutor.get());
+	}
+
+	public static void invalidate() {
+		synchronized (SalaryReportService.class) {
+			generation.incrementAndGet();
+			cached = null;
+		}
+	}
+
+}
@@ -0,0 +1,204 @@
+package model.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+public class SellerExportService {
+
+	public enum Format {
+		CSV, JSON
+	}
+
+	private static final int PROGRESS_INTERVAL = 1000;
+
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
+
+	// rows go straight from the forward-only result set to the file, so memory does not grow with the table
+	public long export(Path target, Format format, boolean gzip, ProgressListener progressListener,
+			BooleanSupplier cancelled) {
+		long total = progressListener == null ? 0 : sellerDao.count();
+		long written = 0;
+		boolean completed = false;
+		try (Stream<Seller> sellers = sellerDao.stream(); Writer writer = open(target, gzip)) {
+			Iterator<Seller> iterator = sellers.iterator();
+			if (format == Format.CSV) {
+				writer.write("Id,Name,Email,BirthDate,BaseSalary,DepartmentId,Department\n");
+			} else {
+				writer.write("[");
+			}
+			while (iterator.hasNext()) {
+				if (cancelled != null && cancelled.getAsBoolean()) {
+					throw new CancellationException("Export cancelled");
+				}
+				Seller seller = iterator.next();
+				if (format == Format.CSV) {
+					writeCsv(writer, seller);
+				} else {
+					writer.write(written == 0 ? "\n" : ",\n");
+					writeJson(writer, seller);
+				}
+				written++;
+				if (progressListener != null && written % PROGRESS_INTERVAL == 0) {
+					progressListener.onProgress(written, Math.max(total, written));
+				}
+			}
+			if (format == Format.JSON) {
+				writer.write(written == 0 ? "]\n" : "\n]\n");
+			}
+			completed = true;
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		} finally {
+			if (!completed) {
+				deleteQuietly(target);
+			}
+		}
+		if (progressListener != null) {
+			progressListener.onProgress(written, written);
+		}
+		return written;
+	}
+
+	// cancelling the returned future stops the export at the next row and removes the partial file
+	public CompletableFuture<Long> exportAsync(Path target, Format format, boolean gzip,
+			ProgressListener progressListener) {
+		CompletableFuture<Long> future = new CompletableFuture<>();
+		ServiceExecutor.get().execute(() -> {
+			try {
+				future.complete(export(target, format, gzip, progressListener, future::isCancelled));
+			} catch (Throwable throwable) {
+				future.completeExceptionally(throwable);
+			}
+		});
+		return future;
+	}
+
+	// sellers.csv, sellers.json, sellers.csv.gz, sellers.json.gz
+	public static Format formatOf(Path target) {
+		String name = target.getFileName().toString().toLowerCase();
+		if (name.endsWith(".gz")) {
+			name = name.substring(0, name.length() - 3);
+		}
+		return name.endsWith(".json") ? Format.JSON : Format.CSV;
+	}
+
+	public static boolean isGzip(Path target) {
+		return target.getFileName().toString().toLowerCase().endsWith(".gz");
+	}
+
+	private static Writer open(Path target, boolean gzip) throws IOException {
+		OutputStream output = Files.newOutputStream(target);
+		if (gzip) {
+			output = new GZIPOutputStream(output, 1 << 16);
+		}
+		return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+	}
+
+	private static void writeCsv(Writer writer, Seller seller) throws IOException {
+		Department department = seller.getDepartment();
+		writer.write(String.valueOf(seller.getId()));
+		writer.write(',');
+		writer.write(Csv.escape(seller.getName()));
+		writer.write(',');
+		writer.write(Csv.escape(seller.getEmail()));
+		writer.write(',');
+		writer.write(formatDate(seller));
+		writer.write(',');
+		writer.write(String.valueOf(seller.getBaseSalary()));
+		writer.write(',');
+		writer.write(department == null ? "" : String.valueOf(department.getId()));
+		writer.write(',');
+		writer.write(department == null ? "" : Csv.escape(department.getName()));
+		writer.write('\n');
+	}
+
+	private static void writeJson(Writer writer, Seller seller) throws IOException {
+		Department department = seller.getDepartment();
+		writer.write("{\"id\":");
+		writer.write(String.valueOf(seller.getId()));
+		writer.write(",\"name\":");
+		writeJsonString(writer, seller.getName());
+		writer.write(",\"email\":");
+		writeJsonString(writer, seller.getEmail());
+		writer.write(",\"birthDate\":");
+		writeJsonString(writer, seller.getBirthDate() == null ? null : formatDate(seller));
+		writer.write(",\"baseSalary\":");
+		writer.write(String.valueOf(seller.getBaseSalary()));
+		writer.write(",\"departmentId\":");
+		writer.write(department == null ? "null" : String.valueOf(department.getId()));
+		writer.write(",\"department\":");
+		writeJsonString(writer, department == null ? null : department.getName());
+		writer.write('}');
+	}
+
+	private static void writeJsonString(Writer writer, String value) throws IOException {
+		if (value == null) {
+			writer.write("null");
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				writer.write("\\\"");
+				break;
+			case '\\':
+				writer.write("\\\\");
+				break;
+			case '\n':
+				writer.write("\\n");
+				break;
+			case '\r':
+				writer.write("\\r");
+				break;
+			case '\t':
+				writer.write("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					writer.write(String.format("\\u%04x", (int) c));
+				} else {
+					writer.write(c);
+				}
+			}
+		}
+		writer.write('"');
+	}
+
+	// ISO yyyy-MM-dd, the format SellerImportService reads back
+	private static String formatDate(Seller seller) {
+		if (seller.getBirthDate() == null) {
+			return "";
+		}
+		return seller.getBirthDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toString();
+	}
+
+	private static void deleteQuietly(Path target) {
+		try {
+			Files.deleteIfExists(target);
+		} catch (IOException exception) {
+			// the caller already gets the original failure
+		}
+	}
+
+}
@@ -0,0 +1,290 @@
+package model.services;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import db.DB;
+import db.TransactionManager;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+public class SellerImportService {
+
+	public static final String[] COLUMNS = { "Name", "Email", "BirthDate", "BaseSalary", "Department" };
+
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
+	private DepartmentDao departmentDao = DaoFactory.createDepartmentDao();
+
+	// each chunk is parsed in parallel while the previous one is written in its own transaction
+	public ImportResult importCsv(Path source, Path rejectFile, ProgressListener progressListener) {
+		long start = System.nanoTime();
+		int chunkSize = DB.getIntProperty("import.chunkSize", 5000);
+		Map<String, Department> departments = departmentsByName();
+
+		long imported = 0;
+		long rejected = 0;
+		BufferedWriter rejects = null;
+		try (CountingInputStream input = new CountingInputStream(Files.newInputStream(source));
+				BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+						1 << 16)) {
+			long total = Files.size(source);
+			String header = reader.readLine();
+			if (header == null) {
+				throw new ValidationException("Empty file");
+			}
+			int[] columns = resolveColumns(Csv.parseLine(stripBom(header)));
+
+			List<Row> chunk = readChunk(reader, chunkSize, 2);
+			CompletableFuture<List<Row>> parsing = parseAsync(chunk, columns, departments);
+			while (!chunk.isEmpty()) {
+				List<Row> parsed = parsing.join();
+				chunk = readChunk(reader, chunkSize, parsed.get(parsed.size() - 1).lineNumber + 1);
+				parsing = parseAsync(chunk, columns, departments);
+
+				List<Seller> sellers = new ArrayList<>(parsed.size());
+				for (Row row : parsed) {
+					if (row.errors == null) {
+						sellers.add(row.seller);
+					} else {
+						if (rejects == null) {
+							rejects = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8);
+							rejects.write(header + ",Line,Errors");
+							rejects.newLine();
+						}
+						rejects.write(row.text + "," + row.lineNumber + "," + Csv.escape(describe(row.errors)));
+						rejects.newLine();
+						rejected++;
+					}
+				}
+				TransactionManager.run(() -> sellerDao.insertAll(sellers));
+				imported += sellers.size();
+
+				if (progressListener != null) {
+					progressListener.onProgress(input.count, total);
+				}
+			}
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		} finally {
+			if (rejects != null) {
+				try {
+					rejects.close();
+				} catch (IOException exception) {
+					throw new UncheckedIOException(exception);
+				}
+			}
+			if (imported > 0) {
+				SellerService.publish(EntityChangeEvent.reloaded());
+			}
+		}
+
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+		return new ImportResult(imported, rejected, elapsedMillis, rejected > 0 ? rejectFile : null);
+	}
+
+	// cancelling the returned future rolls back the chunk being written and stops before the next one;
+	// the chunks already written stay imported
+	public CompletableFuture<ImportResult> importCsvAsync(Path source, Path rejectFile,
+			ProgressListener progressListener) {
+		return ServiceExecutor.supplyCancellable(() -> importCsv(source, rejectFile, progressListener));
+	}
+
+	private Map<String, Department> departmentsByName() {
+		Map<String, Department> departments = new HashMap<>();
+		for (Department department : departmentDao.findAll()) {
+			departments.put(normalize(department.getName()), department);
+		}
+		return departments;
+	}
+
+	private static int[] resolveColumns(List<String> header) {
+		int[] columns = new int[COLUMNS.length];
+		ValidationException exception = new ValidationException("Invalid header");
+		for (int i = 0; i < COLUMNS.length; i++) {
+			columns[i] = -1;
+			for (int j = 0; j < header.size(); j++) {
+				if (header.get(j).trim().equalsIgnoreCase(COLUMNS[i])) {
+					columns[i] = j;
+				}
+			}
+			if (columns[i] < 0) {
+				exception.addError(COLUMNS[i], "Missing column");
+			}
+		}
+		if (exception.getErrors().size() > 0) {
+			throw exception;
+		}
+		return columns;
+	}
+
+	private static List<Row> readChunk(BufferedReader reader, int chunkSize, long firstLine) throws IOException {
+		List<Row> chunk = new ArrayList<>(chunkSize);
+		long lineNumber = firstLine;
+		String line;
+		while (chunk.size() < chunkSize && (line = reader.readLine()) != null) {
+			if (!line.isBlank()) {
+				chunk.add(new Row(lineNumber, line));
+			}
+			lineNumber++;
+		}
+		return chunk;
+	}
+
+	private static CompletableFuture<List<Row>> parseAsync(List<Row> chunk, int[] columns,
+			Map<String, Department> departments) {
+		return CompletableFuture.supplyAsync(() -> {
+			chunk.parallelStream().forEach(row -> parse(row, columns, departments));
+			return chunk;
+		});
+	}
+
+	private static void parse(Row row, int[] columns, Map<String, Department> departments) {
+		try {
+			row.seller = toSeller(Csv.parseLine(row.text), columns, departments);
+		} catch (ValidationException exception) {
+			row.errors = exception.getErrors();
+		}
+	}
+
+	// same rules as SellerFormController.getFormData, plus the column sizes of the seller table
+	private static Seller toSeller(List<String> values, int[] columns, Map<String, Department> departments) {
+		Seller seller = new Seller();
+		ValidationException validationException = new ValidationException("Validation error");
+
+		String name = value(values, columns[0]);
+		if (name.isEmpty()) {
+			validationException.addError("name", "Field can't be empty");
+		} else if (name.length() > 60) {
+			validationException.addError("name", "Field can't be longer than 60 characters");
+		}
+		seller.setName(name);
+
+		String email = value(values, columns[1]);
+		if (email.isEmpty()) {
+			validationException.addError("email", "Field can't be empty");
+		} else if (email.length() > 100 || email.indexOf('@') < 1) {
+			validationException.addError("email", "Invalid email");
+		}
+		seller.setEmail(email);
+
+		String birthDate = value(values, columns[2]);
+		if (birthDate.isEmpty()) {
+			validationException.addError("birthDate", "Field can't be empty");
+		} else {
+			try {
+				LocalDate date = LocalDate.parse(birthDate);
+				seller.setBirthDate(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+			} catch (DateTimeParseException exception) {
+				validationException.addError("birthDate", "Expected yyyy-MM-dd");
+			}
+		}
+
+		String baseSalary = value(values, columns[3]);
+		if (baseSalary.isEmpty()) {
+			validationException.addError("baseSalary", "Field can't be empty");
+		} else {
+			try {
+				seller.setBaseSalary(Double.parseDouble(baseSalary));
+			} catch (NumberFormatException exception) {
+				validationException.addError("baseSalary", "Invalid number");
+			}
+		}
+
+		Department department = departments.get(normalize(value(values, columns[4])));
+		if (department == null) {
+			validationException.addError("department", "Unknown department");
+		}
+		seller.setDepartment(department);
+
+		if (validationException.getErrors().size() > 0) {
+			throw validationException;
+		}
+		return seller;
+	}
+
+	private static String value(List<String> values, int column) {
+		return column < values.size() ? values.get(column).trim() : "";
+	}
+
+	private static String normalize(String name) {
+		return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static String stripBom(String header) {
+		return header.startsWith("\uFEFF") ? header.substring(1) : header;
+	}
+
+	private static String describe(Map<String, String> errors) {
+		return errors.entrySet().stream()
+				.map(entry -> entry.getKey() + ": " + entry.getValue())
+				.sorted()
+				.collect(Collectors.joining("; "));
+	}
+
+	private static class Row {
+
+		private final long lineNumber;
+		private final String text;
+		private Seller seller;
+		private Map<String, String> errors;
+
+		private Row(long lineNumber, String text) {
+			this.lineNumber = lineNumber;
+			this.text = text;
+		}
+
+	}
+
+	// counts the bytes handed to the reader, which is close enough to the file position for a progress bar
+	private static class CountingInputStream extends FilterInputStream {
+
+		private volatile long count;
+
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = super.read(buffer, offset, length);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+	}
+
+}
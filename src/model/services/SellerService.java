@@ -1,29 +1,147 @@
 package model.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
+import db.TransactionManager;
 import model.dao.DaoFactory;
+import model.dao.Page;
+import model.dao.SellerCursor;
 import model.dao.SellerDao;
+import model.dao.SellerSearchCriteria;
+import model.dao.SortOrder;
 import model.entities.Seller;
 
 public class SellerService {
 
+	// shared by every instance, the views create their own services
+	private static final ChangeNotifier<Seller> changeNotifier = new ChangeNotifier<>();
+
 	private SellerDao sellerDao = DaoFactory.createSellerDao();
 
 	public List<Seller> findAll() {
 		return sellerDao.findAll();
 	}
 
+	public Seller findById(Integer id) {
+		return sellerDao.findById(id);
+	}
+
+	public Stream<Seller> stream() {
+		return sellerDao.stream();
+	}
+
+	public Page<Seller> findPage(SellerCursor cursor, int pageSize, SortOrder sortOrder) {
+		return sellerDao.findPage(cursor, pageSize, sortOrder);
+	}
+
+	public Page<Seller> search(SellerSearchCriteria criteria, SellerCursor cursor, int pageSize) {
+		return sellerDao.search(criteria, cursor, pageSize);
+	}
+
+	public List<Seller> search(SellerSearchCriteria criteria, int offset, int limit) {
+		return sellerDao.search(criteria, offset, limit);
+	}
+
+	public long count(SellerSearchCriteria criteria) {
+		return sellerDao.count(criteria);
+	}
+
 	public void saveOrUpdate(Seller seller) {
 		if (seller.getId() == null) {
 			sellerDao.insert(seller);
+			fireAfterCommit(EntityChangeEvent.inserted(seller.getId(), seller));
 		} else {
-			sellerDao.update(seller);
+			// read in the same transaction, so listeners learn which department the seller left
+			Seller previous = TransactionManager.execute(() -> {
+				Seller current = sellerDao.findById(seller.getId());
+				sellerDao.update(seller);
+				return current;
+			});
+			fireAfterCommit(EntityChangeEvent.updated(seller.getId(), seller, previous));
+		}
+	}
+
+	public void saveAll(Collection<Seller> sellers) {
+		List<Seller> toInsert = new ArrayList<>();
+		List<Seller> toUpdate = new ArrayList<>();
+		for (Seller seller : sellers) {
+			if (seller.getId() == null) {
+				toInsert.add(seller);
+			} else {
+				toUpdate.add(seller);
+			}
 		}
+		// one commit for both batches, a failure in either leaves the table untouched
+		TransactionManager.run(() -> {
+			sellerDao.insertAll(toInsert);
+			sellerDao.updateAll(toUpdate);
+		});
+		fireAfterCommit(EntityChangeEvent.reloaded());
 	}
 
 	public void remove(Seller seller) {
 		sellerDao.deleteById(seller.getId());
+		fireAfterCommit(EntityChangeEvent.deleted(seller.getId(), seller));
+	}
+
+	static void publish(EntityChangeEvent<Seller> event) {
+		changeNotifier.fire(event);
+	}
+
+	// for listeners that live in this package without a service instance of their own
+	static void subscribeToChanges(EntityChangeListener<Seller> listener) {
+		changeNotifier.subscribe(listener);
+	}
+
+	// inside an outer transaction the listeners only hear about the write once it commits
+	private static void fireAfterCommit(EntityChangeEvent<Seller> event) {
+		TransactionManager.afterCommit(() -> changeNotifier.fire(event));
+	}
+
+	public void subscribe(EntityChangeListener<Seller> listener) {
+		changeNotifier.subscribe(listener);
+	}
+
+	public void unsubscribe(EntityChangeListener<Seller> listener) {
+		changeNotifier.unsubscribe(listener);
+	}
+
+	// the read methods stop their query when the returned future is cancelled
+	public CompletableFuture<List<Seller>> findAllAsync() {
+		return ServiceExecutor.supplyCancellable(this::findAll);
+	}
+
+	public CompletableFuture<Seller> findByIdAsync(Integer id) {
+		return CompletableFuture.supplyAsync(() -> findById(id), ServiceExecutor.get());
+	}
+
+	public CompletableFuture<Page<Seller>> findPageAsync(SellerCursor cursor, int pageSize, SortOrder sortOrder) {
+		return ServiceExecutor.supplyCancellable(() -> findPage(cursor, pageSize, sortOrder));
+	}
+
+	public CompletableFuture<Page<Seller>> searchAsync(SellerSearchCriteria criteria, SellerCursor cursor,
+			int pageSize) {
+		return ServiceExecutor.supplyCancellable(() -> search(criteria, cursor, pageSize));
+	}
+
+	public CompletableFuture<List<Seller>> searchAsync(SellerSearchCriteria criteria, int offset, int limit) {
+		return ServiceExecutor.supplyCancellable(() -> search(criteria, offset, limit));
+	}
+
+	public CompletableFuture<Long> countAsync(SellerSearchCriteria criteria) {
+		return ServiceExecutor.supplyCancellable(() -> count(criteria));
+	}
+
+	public CompletableFuture<Void> saveOrUpdateAsync(Seller seller) {
+		return CompletableFuture.runAsync(() -> saveOrUpdate(seller), ServiceExecutor.get());
+	}
+
+	public CompletableFuture<Void> removeAsync(Seller seller) {
+		return CompletableFuture.runAsync(() -> remove(seller), ServiceExecutor.get());
 	}
 
 }
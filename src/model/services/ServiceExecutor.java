@@ -0,0 +1,69 @@
+package model.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import db.DB;
+import db.QueryCancellation;
+
+public class ServiceExecutor {
+
+	private static ExecutorService executor = null;
+
+	public static synchronized ExecutorService get() {
+		if (executor == null) {
+			executor = create();
+		}
+		return executor;
+	}
+
+	// cancelling the returned future also cancels the statement the work is running at the time
+	public static <T> CompletableFuture<T> supplyCancellable(Supplier<T> work) {
+		QueryCancellation cancellation = new QueryCancellation();
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.whenComplete((result, throwable) -> {
+			if (future.isCancelled()) {
+				cancellation.cancel();
+			}
+		});
+		get().execute(() -> {
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				future.complete(cancellation.run(work));
+			} catch (Throwable throwable) {
+				future.completeExceptionally(throwable);
+			}
+		});
+		return future;
+	}
+
+	public static synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	private static ExecutorService create() {
+		if (Boolean.parseBoolean(DB.getProperties().getProperty("executor.virtualThreads", "false"))) {
+			try {
+				// only exists from Java 21 on, so it is looked up reflectively to keep building on 17
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException exception) {
+				System.err.println("Virtual threads are not available, falling back to platform threads");
+			}
+		}
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(DB.getIntProperty("executor.threads", 4), runnable -> {
+			Thread thread = new Thread(runnable, "service-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+}
@@ -0,0 +1,90 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolTest {
+
+	private ConnectionPool pool;
+
+	@AfterEach
+	void tearDown() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	@Test
+	void releaseRestoresSessionState() throws Exception {
+		pool = new ConnectionPool(poolProperties("pool_session", new Properties()));
+
+		Connection conn = pool.getConnection();
+		boolean readOnly = conn.isReadOnly();
+		int isolation = conn.getTransactionIsolation();
+		String catalog = conn.getCatalog();
+		conn.setReadOnly(!readOnly);
+		conn.setTransactionIsolation(isolation == Connection.TRANSACTION_SERIALIZABLE
+				? Connection.TRANSACTION_READ_COMMITTED
+				: Connection.TRANSACTION_SERIALIZABLE);
+		conn.close();
+
+		// maxSize is 1, so this is the same physical connection
+		conn = pool.getConnection();
+		try {
+			assertEquals(readOnly, conn.isReadOnly());
+			assertEquals(isolation, conn.getTransactionIsolation());
+			assertEquals(catalog, conn.getCatalog());
+		} finally {
+			conn.close();
+		}
+	}
+
+	@Test
+	void leakReportIncludesBorrowTrace() throws Exception {
+		Properties extra = new Properties();
+		extra.setProperty("pool.leakDetectionThresholdMillis", "1");
+		extra.setProperty("pool.idleTimeoutMillis", "2000");
+
+		PrintStream err = System.err;
+		ByteArrayOutputStream captured = new ByteArrayOutputStream();
+		System.setErr(new PrintStream(captured, true));
+		try {
+			pool = new ConnectionPool(poolProperties("pool_leak", extra));
+			Connection conn = pool.getConnection();
+			try {
+				for (int i = 0; i < 50 && !captured.toString().contains("Possible connection leak"); i++) {
+					Thread.sleep(100);
+				}
+			} finally {
+				conn.close();
+			}
+		} finally {
+			System.setErr(err);
+		}
+
+		String report = captured.toString();
+		assertTrue(report.contains("Possible connection leak"), report);
+		assertTrue(report.contains("Connection borrowed here"), report);
+		assertTrue(report.contains("leakReportIncludesBorrowTrace"), report);
+	}
+
+	private static Properties poolProperties(String name, Properties extra) {
+		Properties properties = new Properties();
+		properties.setProperty("dburl", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		properties.setProperty("user", "sa");
+		properties.setProperty("password", "");
+		properties.setProperty("pool.maxSize", "1");
+		properties.setProperty("pool.minSize", "0");
+		properties.putAll(extra);
+		return properties;
+	}
+
+}
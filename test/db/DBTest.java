@@ -0,0 +1,59 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DBTest {
+
+	@BeforeEach
+	void setUp() {
+		Properties extra = new Properties();
+		extra.setProperty("replica.urls", "jdbc:h2:mem:db_replica;DB_CLOSE_DELAY=-1");
+		extra.setProperty("replica.user", "sa");
+		extra.setProperty("replica.password", "");
+		extra.setProperty("replica.lagQuery", "");
+		extra.setProperty("replica.lagCheckMillis", "100");
+		extra.setProperty("replica.readYourWritesMillis", "1000");
+		TestDatabase.create("db_primary", extra);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestDatabase.drop();
+	}
+
+	@Test
+	void onlyCommittedWritesPinReadsToThePrimary() throws Exception {
+		ReplicaRouter.Replica replica = DB.getReplicaRouter().getReplicas().get(0);
+		for (int i = 0; i < 100 && !replica.isHealthy(); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(replica.isHealthy(), replica.getStatus());
+		// let the window of writes committed by earlier tests run out
+		Thread.sleep(1100);
+
+		// the schema setup and this checkout use the primary without writing through a transaction
+		DB.closeConnection(DB.getConnection());
+		assertTrue(readUrl().contains("db_replica"));
+
+		TransactionManager.run(() -> TestDatabase.execute("INSERT INTO department (Name) VALUES ('Books')"));
+		assertTrue(readUrl().contains("db_primary"));
+	}
+
+	private static String readUrl() throws SQLException {
+		Connection conn = DB.getReadConnection();
+		try {
+			return conn.getMetaData().getURL();
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+}
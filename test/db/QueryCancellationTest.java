@@ -0,0 +1,146 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.services.ServiceExecutor;
+
+class QueryCancellationTest {
+
+	// minutes of work for H2 unless it is cancelled
+	private static final String SLOW_QUERY = "SELECT SUM(X * 2) FROM SYSTEM_RANGE(1, 100000000000)";
+	private static final String RANGE_QUERY = "SELECT SUM(X * 2) FROM SYSTEM_RANGE(1, ?)";
+
+	@BeforeEach
+	void setUp() {
+		TestDatabase.create("querycancellation");
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestDatabase.drop();
+	}
+
+	@Test
+	void cancellingTheFutureStopsTheRunningStatement() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<Long> query = ServiceExecutor.supplyCancellable(() -> {
+			started.countDown();
+			return queryForLong(SLOW_QUERY);
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		Thread.sleep(200);
+
+		long start = System.nanoTime();
+		query.cancel(true);
+
+		// the connection only goes back to the pool once the statement has stopped
+		assertEquals(1L, CompletableFuture.supplyAsync(() -> {
+			while (DB.getConnectionPool().getActiveCount() > 0) {
+				Thread.onSpinWait();
+			}
+			return queryForLong("SELECT 1");
+		}).get(10, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+	}
+
+	@Test
+	void workCancelledBeforeItStartsRunsNoQuery() {
+		QueryCancellation cancellation = new QueryCancellation();
+		cancellation.cancel();
+
+		assertThrows(DbException.class, () -> cancellation.run(() -> queryForLong("SELECT 1")));
+		assertTrue(cancellation.isCancelled());
+	}
+
+	@Test
+	void cancelAfterTheWorkFinishedDoesNotTouchTheStatements() {
+		QueryCancellation cancellation = new QueryCancellation();
+		assertEquals(1L, cancellation.run(() -> queryForLong("SELECT 1")));
+
+		cancellation.cancel();
+
+		// the cached statement is reused by the next caller and still works
+		assertEquals(1L, queryForLong("SELECT 1"));
+	}
+
+	@Test
+	void lateCancelLeavesTheNextUserOfTheCachedStatementAlone() throws Exception {
+		// one connection, so both units of work get the same cached statement
+		TestDatabase.drop();
+		Properties extra = new Properties();
+		extra.setProperty("pool.maxSize", "1");
+		TestDatabase.create("querycancellation_reuse", extra);
+
+		QueryCancellation first = new QueryCancellation();
+		QueryCancellation second = new QueryCancellation();
+		CountDownLatch firstQueried = new CountDownLatch(1);
+		CountDownLatch firstMayFinish = new CountDownLatch(1);
+		CompletableFuture<Long> firstWork = CompletableFuture.supplyAsync(() -> first.run(() -> {
+			long sum = queryForLong(RANGE_QUERY, 10);
+			firstQueried.countDown();
+			await(firstMayFinish);
+			return sum;
+		}));
+		assertTrue(firstQueried.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Long> secondWork = CompletableFuture.supplyAsync(
+				() -> second.run(() -> queryForLong(RANGE_QUERY, 100000000000L)));
+		Thread.sleep(500);
+
+		// the first unit of work is still running, but its statement already belongs to the second one
+		first.cancel();
+		Thread.sleep(500);
+		assertFalse(secondWork.isDone());
+
+		firstMayFinish.countDown();
+		second.cancel();
+		assertThrows(ExecutionException.class, () -> secondWork.get(10, TimeUnit.SECONDS));
+		assertEquals(110L, firstWork.get(5, TimeUnit.SECONDS));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static long queryForLong(String sql, Object... parameters) {
+		Connection conn = DB.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = conn.prepareStatement(sql);
+			for (int i = 0; i < parameters.length; i++) {
+				preparedStatement.setObject(i + 1, parameters[i]);
+			}
+			resultSet = preparedStatement.executeQuery();
+			resultSet.next();
+			return resultSet.getLong(1);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeResultSet(resultSet);
+			DB.closeStatement(preparedStatement);
+			DB.closeConnection(conn);
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+
+class QueryMetricsTest {
+
+	private static final String FIND_ALL = "SELECT * FROM seller ORDER BY Name";
+
+	private SellerDao sellerDao;
+
+	@BeforeEach
+	void setUp() {
+		Properties properties = new Properties();
+		properties.setProperty("metrics.enabled", "true");
+		TestDatabase.create("querymetrics", properties);
+		QueryMetrics.reset();
+		sellerDao = DaoFactory.createSellerDao();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestDatabase.drop();
+		DB.setProperties(new Properties());
+	}
+
+	// next() answers with boxed booleans, which are not always the Boolean.TRUE instance
+	@Test
+	void countsEveryRowRead() {
+		int sellers = sellerDao.findAll().size();
+		for (int call = 2; call <= 5; call++) {
+			sellerDao.findAll();
+			assertEquals(call, statistics(FIND_ALL).getCalls());
+			assertEquals((long) call * sellers, statistics(FIND_ALL).getRows());
+		}
+		assertEquals(5L * sellers, statistics("SellerDao.findAll()").getRows());
+	}
+
+	private static QueryStats statistics(String name) {
+		return QueryMetrics.getStatistics().stream()
+				.filter(stats -> stats.getName().equals(name))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("No statistics for " + name + " in " + QueryMetrics.getStatistics()));
+	}
+
+}
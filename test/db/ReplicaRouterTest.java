@@ -0,0 +1,98 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicaRouterTest {
+
+	private ReplicaRouter router;
+
+	@AfterEach
+	void tearDown() {
+		if (router != null) {
+			router.close();
+		}
+	}
+
+	@Test
+	void busyReplicaStaysInRotation() throws Exception {
+		router = new ReplicaRouter(replicaProperties("jdbc:h2:mem:replica_busy;DB_CLOSE_DELAY=-1"));
+		ReplicaRouter.Replica replica = router.getReplicas().get(0);
+		awaitHealthy(replica);
+
+		Connection held = router.getConnection();
+		assertNotNull(held);
+		try {
+			// the only connection is taken: the replica pool gives up after its own short timeout, not the
+			// primary's, and the read has to go to the primary
+			long start = System.nanoTime();
+			assertNull(router.getConnection());
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+			assertTrue(replica.isHealthy(), replica.getStatus());
+		} finally {
+			held.close();
+		}
+		Connection conn = router.getConnection();
+		assertNotNull(conn);
+		conn.close();
+	}
+
+	@Test
+	void unreachableReplicaIsMarkedDown() throws Exception {
+		router = new ReplicaRouter(replicaProperties("jdbc:h2:mem:replica_down;DB_CLOSE_DELAY=-1"));
+		ReplicaRouter.Replica replica = router.getReplicas().get(0);
+		awaitHealthy(replica);
+
+		// the idle connection fails validation and a new one can not be opened
+		Connection conn = replica.getPool().getConnection();
+		conn.createStatement().execute("SHUTDOWN");
+		conn.close();
+
+		assertNull(router.getConnection());
+		assertFalse(replica.isHealthy());
+	}
+
+	private static Properties replicaProperties(String url) {
+		Properties properties = new Properties();
+		properties.setProperty("replica.urls", url.replace("DB_CLOSE_DELAY=-1", "DB_CLOSE_DELAY=-1;IFEXISTS=TRUE"));
+		properties.setProperty("replica.user", "sa");
+		properties.setProperty("replica.password", "");
+		properties.setProperty("replica.lagQuery", "");
+		properties.setProperty("replica.lagCheckMillis", "60000");
+		properties.setProperty("pool.maxSize", "1");
+		properties.setProperty("pool.minSize", "0");
+		properties.setProperty("pool.acquireTimeoutMillis", "30000");
+		properties.setProperty("replica.acquireTimeoutMillis", "200");
+		// IFEXISTS only lets the replica pool open a database that is already there
+		createDatabase(url);
+		return properties;
+	}
+
+	private static void createDatabase(String url) {
+		try {
+			Connection conn = DriverManager.getConnection(url, "sa", "");
+			conn.close();
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		}
+	}
+
+	private static void awaitHealthy(ReplicaRouter.Replica replica) throws InterruptedException {
+		for (int i = 0; i < 100 && !replica.isHealthy(); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(replica.isHealthy(), replica.getStatus());
+	}
+
+}
@@ -0,0 +1,60 @@
+package db;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import model.dao.DaoFactory;
+
+// a fresh in-memory H2 database with the real schema for every test class
+public class TestDatabase {
+
+	private TestDatabase() {
+	}
+
+	public static Properties create(String name) {
+		return create(name, new Properties());
+	}
+
+	// extra properties (changes.batchLimit, metrics.enabled...) are applied on top of the defaults
+	public static Properties create(String name, Properties extra) {
+		Properties properties = new Properties();
+		properties.setProperty("dburl", "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		properties.setProperty("user", "sa");
+		properties.setProperty("password", "");
+		properties.setProperty("pool.maxSize", "4");
+		properties.putAll(extra);
+		DB.setProperties(properties);
+		DaoFactory.invalidateCaches();
+
+		Connection conn = DB.getConnection();
+		try {
+			EmbeddedDatabase.createSchema(conn, Paths.get(EmbeddedDatabase.SCHEMA_SCRIPT));
+		} finally {
+			DB.closeConnection(conn);
+		}
+		return properties;
+	}
+
+	public static void execute(String sql) {
+		Connection conn = DB.getConnection();
+		Statement statement = null;
+		try {
+			statement = conn.createStatement();
+			statement.execute(sql);
+		} catch (SQLException exception) {
+			throw new DbException(exception.getMessage(), exception);
+		} finally {
+			DB.closeStatement(statement);
+			DB.closeConnection(conn);
+		}
+	}
+
+	public static void drop() {
+		execute("SHUTDOWN");
+		DB.closeConnectionPool();
+	}
+
+}
@@ -0,0 +1,55 @@
+package gui.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class FormattersTest {
+
+	@Test
+	void roundsHalvesLikeStringFormat() {
+		for (int decimalPlaces = 0; decimalPlaces <= 4; decimalPlaces++) {
+			for (int units = 0; units < 20_000; units++) {
+				// 0.5, 1.5 ... for no decimals, 0.005, 0.015 ... for two
+				double half = Double.parseDouble(units + "5E-" + (decimalPlaces + 1));
+				assertSameAsStringFormat(half, decimalPlaces);
+				assertSameAsStringFormat(-half, decimalPlaces);
+				assertSameAsStringFormat(half + 1000, decimalPlaces);
+			}
+		}
+		assertEquals("1.01", Formatters.formatDecimal(1.005, 2));
+	}
+
+	@Test
+	void matchesStringFormatOnRandomValues() {
+		Random random = new Random(42);
+		for (int i = 0; i < 1_000_000; i++) {
+			double value = Math.round(random.nextDouble() * 10_000_000) / 1000.0;
+			assertSameAsStringFormat(value, 2);
+		}
+		for (int i = 0; i < 100_000; i++) {
+			assertSameAsStringFormat((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20)), i % 6);
+		}
+	}
+
+	@Test
+	void matchesStringFormatOnEdgeValues() {
+		double[] values = { 0.0, -0.0, -0.001, 0.004999, 1e15, 1e15 + 0.5, 123456789012345.67, 1e20, -1e20,
+				Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+		for (double value : values) {
+			for (int decimalPlaces = 0; decimalPlaces <= 8; decimalPlaces++) {
+				assertSameAsStringFormat(value, decimalPlaces);
+			}
+		}
+		assertEquals("", Formatters.formatDecimal(null, 2));
+	}
+
+	private static void assertSameAsStringFormat(double value, int decimalPlaces) {
+		assertEquals(String.format(Locale.US, "%." + decimalPlaces + "f", value),
+				Formatters.formatDecimal(value, decimalPlaces), "formatting " + value);
+	}
+
+}
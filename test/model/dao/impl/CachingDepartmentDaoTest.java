@@ -0,0 +1,76 @@
+package model.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import db.TestDatabase;
+import db.TransactionManager;
+import model.entities.Department;
+
+class CachingDepartmentDaoTest {
+
+	private CachingDepartmentDao departmentDao;
+
+	@BeforeEach
+	void setUp() {
+		TestDatabase.create("cachingdepartmentdao");
+		departmentDao = new CachingDepartmentDao(new DepartmentDaoJDBC(new ChangeLogDaoJDBC()), 300, 100);
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestDatabase.drop();
+	}
+
+	@Test
+	void handsOutCopies() {
+		String name = departmentDao.findById(1).getName();
+
+		departmentDao.findById(1).setName("Changed by a caller");
+		assertEquals(name, departmentDao.findById(1).getName());
+
+		departmentDao.findAll().forEach(department -> department.setName("Changed by a caller"));
+		assertEquals(name, departmentDao.findById(1).getName());
+		assertEquals(1, departmentDao.findAll().stream().filter(d -> d.getName().equals(name)).count());
+	}
+
+	@Test
+	void readerDuringAnOpenTransactionDoesNotKeepTheOldRow() {
+		String name = departmentDao.findById(1).getName();
+
+		TransactionManager.run(() -> {
+			Department department = departmentDao.findById(1);
+			department.setName("Renamed");
+			departmentDao.update(department);
+
+			// another thread reloads the committed row before this transaction commits
+			assertEquals(name, CompletableFuture.supplyAsync(() -> departmentDao.findById(1).getName()).join());
+			assertEquals("Renamed", departmentDao.findById(1).getName());
+		});
+
+		assertEquals("Renamed", departmentDao.findById(1).getName());
+	}
+
+	@Test
+	void rolledBackWriteIsNotCached() {
+		String name = departmentDao.findById(1).getName();
+
+		assertThrows(IllegalStateException.class, () -> TransactionManager.run(() -> {
+			Department department = departmentDao.findById(1);
+			department.setName("Rolled back");
+			departmentDao.update(department);
+			departmentDao.findAll();
+			throw new IllegalStateException("rollback");
+		}));
+
+		assertEquals(name, departmentDao.findById(1).getName());
+		assertEquals(1, departmentDao.findAll().stream().filter(d -> d.getName().equals(name)).count());
+	}
+
+}
@@ -0,0 +1,109 @@
+package model.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import db.DbException;
+import db.DbIntegrityException;
+import db.TestDatabase;
+import db.TransactionManager;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.entities.Department;
+
+class DepartmentDaoJDBCTest {
+
+	private DepartmentDao departmentDao;
+
+	@BeforeEach
+	void setUp() {
+		TestDatabase.create("departmentdao");
+		departmentDao = DaoFactory.createDepartmentDao();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestDatabase.drop();
+	}
+
+	@Test
+	void updateBumpsTheVersionOnCommit() {
+		Department department = departmentDao.findById(1);
+		int version = department.getVersion();
+
+		departmentDao.update(department);
+
+		assertEquals(version + 1, department.getVersion());
+		assertEquals(version + 1, departmentDao.findById(1).getVersion());
+	}
+
+	@Test
+	void rolledBackUpdateKeepsTheVersion() {
+		Department department = departmentDao.findById(1);
+		int version = department.getVersion();
+
+		assertThrows(IllegalStateException.class, () -> TransactionManager.run(() -> {
+			departmentDao.update(department);
+			throw new IllegalStateException("rollback");
+		}));
+		assertEquals(version, department.getVersion());
+
+		// the next save still matches the row
+		department.setName("After rollback");
+		departmentDao.update(department);
+		assertEquals(version + 1, department.getVersion());
+	}
+
+	@Test
+	void deadlockRetryUpdatesWithTheOriginalVersion() {
+		Department department = departmentDao.findById(1);
+		int version = department.getVersion();
+		AtomicInteger attempts = new AtomicInteger();
+
+		TransactionManager.run(() -> {
+			departmentDao.update(department);
+			if (attempts.incrementAndGet() == 1) {
+				throw new DbException("Deadlock", new SQLException("Deadlock found", "40001", 1213));
+			}
+		});
+
+		assertEquals(2, attempts.get());
+		assertEquals(version + 1, department.getVersion());
+		assertEquals(version + 1, departmentDao.findById(1).getVersion());
+	}
+
+	@Test
+	void rolledBackBatchUpdateKeepsTheVersions() {
+		List<Department> departments = List.of(departmentDao.findById(1), departmentDao.findById(2));
+		int first = departments.get(0).getVersion();
+		int second = departments.get(1).getVersion();
+
+		assertThrows(IllegalStateException.class, () -> TransactionManager.run(() -> {
+			departmentDao.updateAll(departments);
+			throw new IllegalStateException("rollback");
+		}));
+		assertEquals(first, departments.get(0).getVersion());
+		assertEquals(second, departments.get(1).getVersion());
+
+		departmentDao.updateAll(departments);
+		assertEquals(first + 1, departments.get(0).getVersion());
+		assertEquals(second + 1, departments.get(1).getVersion());
+	}
+
+	@Test
+	void deletingADepartmentWithSellersKeepsTheDriverError() {
+		DbIntegrityException exception = assertThrows(DbIntegrityException.class, () -> departmentDao.deleteById(1));
+		assertInstanceOf(SQLIntegrityConstraintViolationException.class, exception.getCause());
+	}
+
+}
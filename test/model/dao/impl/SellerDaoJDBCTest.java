@@ -0,0 +1,129 @@
+package model.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import db.DB;
+import db.DbException;
+import db.TestDatabase;
+import db.TransactionManager;
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Seller;
+
+class SellerDaoJDBCTest {
+
+	private SellerDao sellerDao;
+
+	@BeforeEach
+	void setUp() {
+		TestDatabase.create("sellerdao");
+		sellerDao = DaoFactory.createSellerDao();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestDatabase.drop();
+	}
+
+	@Test
+	void updateBumpsTheVersionOnCommit() {
+		Seller seller = sellerDao.findById(1);
+		int version = seller.getVersion();
+
+		sellerDao.update(seller);
+
+		assertEquals(version + 1, seller.getVersion());
+		assertEquals(version + 1, sellerDao.findById(1).getVersion());
+	}
+
+	@Test
+	void rolledBackUpdateKeepsTheVersion() {
+		Seller seller = sellerDao.findById(1);
+		int version = seller.getVersion();
+
+		assertThrows(IllegalStateException.class, () -> TransactionManager.run(() -> {
+			sellerDao.update(seller);
+			throw new IllegalStateException("rollback");
+		}));
+		assertEquals(version, seller.getVersion());
+
+		// the next save still matches the row
+		seller.setName("After rollback");
+		sellerDao.update(seller);
+		assertEquals(version + 1, seller.getVersion());
+	}
+
+	@Test
+	void deadlockRetryUpdatesWithTheOriginalVersion() {
+		Seller seller = sellerDao.findById(1);
+		int version = seller.getVersion();
+		AtomicInteger attempts = new AtomicInteger();
+
+		TransactionManager.run(() -> {
+			sellerDao.update(seller);
+			if (attempts.incrementAndGet() == 1) {
+				throw new DbException("Deadlock", new SQLException("Deadlock found", "40001", 1213));
+			}
+		});
+
+		assertEquals(2, attempts.get());
+		assertEquals(version + 1, seller.getVersion());
+		assertEquals(version + 1, sellerDao.findById(1).getVersion());
+	}
+
+	@Test
+	void rolledBackBatchUpdateKeepsTheVersions() {
+		List<Seller> sellers = List.of(sellerDao.findById(1), sellerDao.findById(2));
+		int first = sellers.get(0).getVersion();
+		int second = sellers.get(1).getVersion();
+
+		assertThrows(IllegalStateException.class, () -> TransactionManager.run(() -> {
+			sellerDao.updateAll(sellers);
+			throw new IllegalStateException("rollback");
+		}));
+		assertEquals(first, sellers.get(0).getVersion());
+		assertEquals(second, sellers.get(1).getVersion());
+
+		sellerDao.updateAll(sellers);
+		assertEquals(first + 1, sellers.get(0).getVersion());
+		assertEquals(second + 1, sellers.get(1).getVersion());
+	}
+
+	@Test
+	void batchInsertAssignsKeysAcrossChunksAndBatchDeleteRemovesThem() {
+		DB.getProperties().setProperty("batch.size", "2");
+		Seller template = sellerDao.findById(1);
+		List<Seller> sellers = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			sellers.add(new Seller(null, "Batch " + i, "batch" + i + "@mail.com", template.getBirthDate(), 1000.0,
+					template.getDepartment()));
+		}
+
+		sellerDao.insertAll(sellers);
+
+		List<Integer> ids = new ArrayList<>();
+		for (Seller seller : sellers) {
+			assertEquals(seller.getName(), sellerDao.findById(seller.getId()).getName());
+			assertEquals(0, seller.getVersion());
+			ids.add(seller.getId());
+		}
+
+		sellerDao.deleteAllById(ids);
+		for (Integer id : ids) {
+			assertNull(sellerDao.findById(id));
+		}
+		assertThrows(DbException.class, () -> sellerDao.deleteAllById(ids));
+	}
+
+}
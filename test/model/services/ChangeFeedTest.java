@@ -0,0 +1,89 @@
+package model.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import db.TestDatabase;
+import model.dao.DaoFactory;
+import model.entities.Seller;
+
+class ChangeFeedTest {
+
+	private static final int BATCH_LIMIT = 5;
+
+	private final List<Integer> deleted = Collections.synchronizedList(new ArrayList<>());
+	// the notifier only holds it weakly
+	private final EntityChangeListener<Seller> listener = event -> {
+		if (event.getType() == EntityChangeEvent.Type.DELETED) {
+			deleted.add(event.getId());
+		}
+	};
+
+	@BeforeEach
+	void setUp() {
+		Properties properties = new Properties();
+		properties.setProperty("changes.batchLimit", String.valueOf(BATCH_LIMIT));
+		TestDatabase.create("changefeed", properties);
+		new SellerService().subscribe(listener);
+	}
+
+	@AfterEach
+	void tearDown() {
+		new SellerService().unsubscribe(listener);
+		TestDatabase.drop();
+	}
+
+	@Test
+	void deliversRowsFromOtherClients() {
+		ChangeFeed feed = new ChangeFeed();
+		long start = DaoFactory.createChangeLogDao().lastId();
+		insertRemote(start + 1);
+		insertRemote(start + 2);
+
+		assertEquals(2, feed.poll());
+		assertEquals(List.of((int) start + 1, (int) start + 2), deleted);
+	}
+
+	@Test
+	void keepsPagingForwardPastAGap() {
+		ChangeFeed feed = new ChangeFeed();
+		long start = DaoFactory.createChangeLogDao().lastId();
+		// start + 1 is still uncommitted somewhere, three batches land after it
+		int after = BATCH_LIMIT * 3;
+		for (long id = start + 2; id < start + 2 + after; id++) {
+			insertRemote(id);
+		}
+
+		int polls = 0;
+		while (feed.poll() == BATCH_LIMIT) {
+			polls++;
+			assertTrue(polls <= after / BATCH_LIMIT, "the feed re-read rows it had already delivered");
+		}
+		assertEquals(after, deleted.size());
+
+		insertRemote(start + 1);
+		assertEquals(0, feed.poll());
+		assertEquals(after + 1, deleted.size());
+		assertEquals((int) start + 1, deleted.get(after));
+
+		// the late row is delivered once only
+		feed.poll();
+		assertEquals(after + 1, deleted.size());
+	}
+
+	// a delete keeps the event free of entity lookups; the log id doubles as the seller id
+	private static void insertRemote(long id) {
+		TestDatabase.execute("INSERT INTO change_log (Id, EntityType, EntityId, ChangeType, Origin, ChangedAt) "
+				+ "VALUES (" + id + ", 'seller', " + id + ", 'DELETED', 'other-client', NOW())");
+	}
+
+}
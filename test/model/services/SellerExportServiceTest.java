@@ -0,0 +1,68 @@
+package model.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import db.DB;
+import db.EmbeddedDatabase;
+import db.TestDatabase;
+import model.dao.DaoFactory;
+
+class SellerExportServiceTest {
+
+	@TempDir
+	Path directory;
+
+	// the same setup as dao.backend=embedded with an empty embedded.path, without a stream.fetchSize
+	@BeforeEach
+	void setUp() {
+		DB.setProperties(new Properties());
+		EmbeddedDatabase.start("");
+		DaoFactory.invalidateCaches();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TestDatabase.drop();
+	}
+
+	@Test
+	void exportsCsvFromTheEmbeddedDatabase() throws IOException {
+		Path target = directory.resolve("sellers.csv");
+		long sellers = DaoFactory.createSellerDao().count();
+
+		long written = new SellerExportService().export(target, SellerExportService.Format.CSV, false, null, null);
+
+		List<String> lines = Files.readAllLines(target, StandardCharsets.UTF_8);
+		assertTrue(sellers > 0);
+		assertEquals(sellers, written);
+		assertEquals(sellers + 1, lines.size());
+		assertEquals("Id,Name,Email,BirthDate,BaseSalary,DepartmentId,Department", lines.get(0));
+	}
+
+	@Test
+	void exportsJsonFromTheEmbeddedDatabase() throws IOException {
+		Path target = directory.resolve("sellers.json");
+		long sellers = DaoFactory.createSellerDao().count();
+
+		long written = new SellerExportService().export(target, SellerExportService.Format.JSON, false, null, null);
+
+		String json = Files.readString(target, StandardCharsets.UTF_8);
+		assertEquals(sellers, written);
+		assertTrue(json.startsWith("[") && json.trim().endsWith("]"));
+		assertEquals(sellers, json.split("\"id\":", -1).length - 1);
+	}
+
+}
@@ -0,0 +1,50 @@
+package model.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import db.TestDatabase;
+import model.entities.Department;
+import model.entities.Seller;
+
+class SellerServiceTest {
+
+	private final List<EntityChangeEvent<Seller>> events = new ArrayList<>();
+	private final EntityChangeListener<Seller> listener = events::add;
+	private SellerService sellerService;
+
+	@BeforeEach
+	void setUp() {
+		TestDatabase.create("sellerservice");
+		sellerService = new SellerService();
+		sellerService.subscribe(listener);
+	}
+
+	@AfterEach
+	void tearDown() {
+		sellerService.unsubscribe(listener);
+		TestDatabase.drop();
+	}
+
+	@Test
+	void updateEventCarriesTheDepartmentTheSellerLeft() {
+		Seller seller = sellerService.findById(1);
+		assertEquals(1, seller.getDepartment().getId());
+
+		seller.setDepartment(new Department(2, null));
+		sellerService.saveOrUpdate(seller);
+
+		assertEquals(1, events.size());
+		EntityChangeEvent<Seller> event = events.get(0);
+		assertEquals(EntityChangeEvent.Type.UPDATED, event.getType());
+		assertEquals(2, event.getEntity().getDepartment().getId());
+		assertEquals(1, event.getPrevious().getDepartment().getId());
+	}
+
+}